@@ -0,0 +1,83 @@
+import edu.princeton.cs.algs4.StdOut;
+
+/*
+  Same percolation model as Percolation, but backed by a single primitive union-find instead of two WeightedQuickUnionUF objects.
+  That union-find is LatticePercolation over Lattice.square(N), with packed root flags instead of virtual nodes, so there is no backwash;
+  this class only checks the 1-based (row, col) coordinates and turns them into the lattice's 0-based row-major site index.
+*/
+
+public class CompactPercolation {
+
+    private LatticePercolation lattice;
+    private int gridSize;
+
+    /*
+      Initialises an N * N square lattice where every site is its own root and is blocked.
+      N dimensions of the grid
+    */
+
+    public CompactPercolation(int N) {
+        if (N <= 0) throw new IllegalArgumentException("N must be greater than zero");
+        gridSize = N;
+        lattice = new LatticePercolation(Lattice.square(N));
+    }
+
+    //Sets a given node coordinates to be open (if it isn't open already) and unions it with every open neighbour.
+    public void open(int row, int col) {
+        validateSite(row, col);
+        lattice.open(flattenGrid(row, col));
+    }
+
+    //Converts an index for a 0-based array from two grid coordinates which are 1-based.
+    private int flattenGrid(int row, int col) {
+        return gridSize * (row - 1) + col - 1;
+    }
+
+    //Throws an error if the given coordinates are not valid.
+    private void validateSite(int row, int col) {
+        if (row < 1 || col < 1 || row > gridSize || col > gridSize) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+    }
+
+    //Checks whether this node is open or not.
+    public boolean isOpen(int row, int col) {
+        validateSite(row, col);
+        return lattice.isOpen(flattenGrid(row, col));
+    }
+
+    //A node is full if it is open and its root has been connected to the top row.
+    public boolean isFull(int row, int col) {
+        validateSite(row, col);
+        return lattice.isFull(flattenGrid(row, col));
+    }
+
+    // Test: number of open sites
+    public int numberOfOpenSites() {
+        return lattice.numberOfOpenSites();
+    }
+
+    //The grid percolates once any root has carried both the top and the bottom flag.
+    public boolean percolates() {
+        return lattice.percolates();
+    }
+
+    // test client
+    public static void main(String[] args) {
+        int size = Integer.parseInt(args[0]);
+
+        CompactPercolation percolation = new CompactPercolation(size);
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            int row = Integer.parseInt(args[i]);
+            int col = Integer.parseInt(args[i + 1]);
+            StdOut.printf("Adding row: %d  col: %d %n", row, col);
+            percolation.open(row, col);
+            if (percolation.percolates()) {
+                StdOut.printf("%nThe System percolates %n");
+            }
+        }
+        if (!percolation.percolates()) {
+            StdOut.printf("Does not percolate %n");
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+  Geometry of a percolation lattice, used by LatticePercolation.
+  Sites are numbered 0 .. sites() - 1 in row-major order with the percolation axis slowest: rows for the 2D lattices, layers for the cubic one.
+  Every site is mapped into a backing array with one blocked site of padding on each side of every axis,
+  so each neighbour is found by adding a fixed offset from a precomputed table and no neighbour lookup needs a bounds check.
+  The honeycomb lattice has two kinds of sites (pointing up or down). Its padded row width is kept odd,
+  which makes the parity of a padded index equal to the parity of row + col, so the right table is picked with a mask instead of a branch.
+*/
+
+public class Lattice {
+    private final String name;
+    private final int width;
+    private final int height;
+    private final int depth;
+    private final int paddedWidth;
+    private final int paddedHeight;
+    private final int paddedDepth;
+    private final int[][] stencils;
+    private final int stencilMask;
+
+    private Lattice(String name, int width, int height, int depth, boolean oddWidth, StencilFactory factory) {
+        if (width <= 0 || height <= 0 || depth <= 0) throw new IllegalArgumentException("dimensions must be greater than zero");
+        this.name = name;
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        int padWidth = width + 2;
+        if (oddWidth && padWidth % 2 == 0) padWidth++;
+        this.paddedWidth = padWidth;
+        this.paddedHeight = height + 2;
+        this.paddedDepth = depth == 1 ? 1 : depth + 2;
+        if ((long) paddedWidth * paddedHeight * paddedDepth > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("padded lattice must fit in an int");
+        }
+        this.stencils = factory.stencils(paddedWidth, paddedWidth * paddedHeight);
+        this.stencilMask = stencils.length - 1;
+    }
+
+    //Builds the neighbour offset tables once the padded strides are known.
+    private interface StencilFactory {
+        int[][] stencils(int rowStride, int layerStride);
+    }
+
+    // n * n square lattice, 4 neighbours
+    public static Lattice square(int n) {
+        return new Lattice("square", n, n, 1, false, (row, layer) -> new int[][] {
+            { -1, 1, -row, row }
+        });
+    }
+
+    // n * n triangular lattice drawn on a square grid with one diagonal added, 6 neighbours
+    public static Lattice triangular(int n) {
+        return new Lattice("triangular", n, n, 1, false, (row, layer) -> new int[][] {
+            { -1, 1, -row, row, -row + 1, row - 1 }
+        });
+    }
+
+    // n * n honeycomb lattice in brick-wall form, 3 neighbours: left, right and up or down depending on the parity of row + col
+    public static Lattice honeycomb(int n) {
+        return new Lattice("honeycomb", n, n, 1, true, (row, layer) -> new int[][] {
+            { -1, 1, -row },
+            { -1, 1, row }
+        });
+    }
+
+    // n * n * n simple cubic lattice percolating from the first layer to the last, 6 neighbours
+    public static Lattice cubic(int n) {
+        return new Lattice("cubic", n, n, n, false, (row, layer) -> new int[][] {
+            { -1, 1, -row, row, -layer, layer }
+        });
+    }
+
+    public String name() {
+        return name;
+    }
+
+    //Number of real (unpadded) sites.
+    public int sites() {
+        return width * height * depth;
+    }
+
+    //Number of sites in the first or last slice along the percolation axis.
+    public int sliceSize() {
+        return depth == 1 ? width : width * height;
+    }
+
+    //Length of the padded backing array.
+    public int paddedSize() {
+        return paddedWidth * paddedHeight * paddedDepth;
+    }
+
+    //Maps a 0-based site to its index in the padded backing array.
+    public int padded(int site) {
+        if (depth == 1) {
+            int row = site / width;
+            return (row + 1) * paddedWidth + site - row * width + 1;
+        }
+        int col = site % width;
+        int rest = site / width;
+        int row = rest % height;
+        int layer = rest / height;
+        return ((layer + 1) * paddedHeight + row + 1) * paddedWidth + col + 1;
+    }
+
+    //Neighbour offsets for a padded index; for every lattice but the honeycomb this is always the same table.
+    public int[] stencil(int paddedIndex) {
+        return stencils[paddedIndex & stencilMask];
+    }
+
+    //Throws an error if the given site is not a real site of this lattice.
+    public void validate(int site) {
+        if (site < 0 || site >= sites()) throw new IndexOutOfBoundsException("Index is out of bounds");
+    }
+}
@@ -0,0 +1,150 @@
+import edu.princeton.cs.algs4.StdOut;
+import java.util.SplittableRandom;
+
+/*
+  Site percolation on any Lattice: square, triangular, honeycomb or 3D cubic. CompactPercolation is this class on Lattice.square(N).
+  Backed by a single primitive union-find over the lattice's padded backing array. Every site owns one int in the parent array
+  and one byte of packed flags: bit 0 marks the site open, bit 1 marks its component as connected to the top slice,
+  bit 2 as connected to the bottom slice, and the upper five bits hold the union-by-rank value of a root.
+  Because the top and bottom flags live on the root instead of on shared virtual nodes there is no backwash,
+  so isFull and percolates are a single root lookup each and only one union is done per neighbour.
+  Padding sites are never opened, so open() walks the neighbour offset table with no bounds checks; the only test per neighbour is whether it is open.
+  The first slice along the percolation axis counts as the top and the last slice as the bottom.
+*/
+
+public class LatticePercolation {
+
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+    private static final int RANK_SHIFT = 3;
+
+    private Lattice lattice;
+    private int[] parent;
+    private byte[] state;
+    private int openSites;
+    private boolean percolates;
+
+    //Initialises a lattice where every site is blocked and its own root.
+    public LatticePercolation(Lattice lattice) {
+        this.lattice = lattice;
+        parent = new int[lattice.paddedSize()];
+        state = new byte[lattice.paddedSize()];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        openSites = 0;
+        percolates = false;
+    }
+
+    //Opens a 0-based site (if it isn't open already) and unions it with every open neighbour in the lattice stencil.
+    public void open(int site) {
+        lattice.validate(site);
+        int p = lattice.padded(site);
+        if ((state[p] & OPEN) != 0) {
+            if (PercolationMetrics.ENABLED) PercolationMetrics.open(true);
+            return;
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.open(false);
+
+        byte flags = OPEN;
+        if (site < lattice.sliceSize()) flags |= TOP;
+        if (site >= lattice.sites() - lattice.sliceSize()) flags |= BOTTOM;
+        state[p] |= flags;
+        openSites++;
+
+        for (int offset : lattice.stencil(p)) {
+            union(p, p + offset);
+        }
+
+        int root = find(p);
+        if ((state[root] & (TOP | BOTTOM)) == (TOP | BOTTOM)) percolates = true;
+    }
+
+    //Joins the component of an open site with a neighbour if that neighbour is open; padding is never open.
+    private void union(int site, int neighbour) {
+        if ((state[neighbour] & OPEN) == 0) return;
+        int rootP = find(site);
+        int rootQ = find(neighbour);
+        if (PercolationMetrics.ENABLED) PercolationMetrics.union(0);
+        if (rootP == rootQ) return;
+
+        int rankP = (state[rootP] & 0xFF) >>> RANK_SHIFT;
+        int rankQ = (state[rootQ] & 0xFF) >>> RANK_SHIFT;
+        int flags = (state[rootP] | state[rootQ]) & (OPEN | TOP | BOTTOM);
+        if (rankP < rankQ) {
+            parent[rootP] = rootQ;
+            state[rootQ] = (byte) (flags | (rankQ << RANK_SHIFT));
+        } else {
+            parent[rootQ] = rootP;
+            if (rankP == rankQ) rankP++;
+            state[rootP] = (byte) (flags | (rankP << RANK_SHIFT));
+        }
+    }
+
+    //Finds the root of a site, halving the path on the way up.
+    private int find(int site) {
+        int steps = 0;
+        while (site != parent[site]) {
+            parent[site] = parent[parent[site]];
+            site = parent[site];
+            steps++;
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.find(steps);
+        return site;
+    }
+
+    //Checks whether this site is open or not.
+    public boolean isOpen(int site) {
+        lattice.validate(site);
+        return (state[lattice.padded(site)] & OPEN) != 0;
+    }
+
+    //A site is full if it is open and its root has been connected to the top slice.
+    public boolean isFull(int site) {
+        lattice.validate(site);
+        int p = lattice.padded(site);
+        return (state[p] & OPEN) != 0 && (state[find(p)] & TOP) != 0;
+    }
+
+    // Test: number of open sites
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    //The lattice percolates once any root has carried both the top and the bottom flag.
+    public boolean percolates() {
+        return percolates;
+    }
+
+    // test client: estimates the site percolation threshold of every lattice with one shuffled sweep per trial
+    public static void main(String[] args) {
+        int size = args.length >= 1 ? Integer.parseInt(args[0]) : 128;
+        int trials = args.length >= 2 ? Integer.parseInt(args[1]) : 20;
+        SplittableRandom random = new SplittableRandom(args.length >= 3 ? Long.parseLong(args[2]) : 0L);
+
+        Lattice[] lattices = {
+            Lattice.square(size), Lattice.triangular(size), Lattice.honeycomb(size), Lattice.cubic(Math.max(1, size / 4))
+        };
+        for (Lattice lattice : lattices) {
+            RunningStats stats = new RunningStats();
+            int sites = lattice.sites();
+            int[] order = new int[sites];
+            for (int trial = 0; trial < trials; trial++) {
+                for (int i = 0; i < sites; i++) {
+                    order[i] = i;
+                }
+                LatticePercolation percolation = new LatticePercolation(lattice);
+                for (int step = 0; !percolation.percolates(); step++) {
+                    int swap = random.nextInt(step, sites);
+                    int site = order[swap];
+                    order[swap] = order[step];
+                    order[step] = site;
+                    percolation.open(site);
+                }
+                stats.add((double) percolation.numberOfOpenSites() / sites);
+            }
+            StdOut.printf("%-10s threshold = %.4f +- %.4f %n", lattice.name(), stats.mean(), stats.halfWidth());
+        }
+    }
+}
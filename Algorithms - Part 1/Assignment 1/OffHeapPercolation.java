@@ -0,0 +1,241 @@
+import edu.princeton.cs.algs4.StdOut;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/*
+  Percolation for lattices too large for int indices or for the heap, e.g. 100k * 100k sites.
+  Uses the same single union-find with packed root flags as LatticePercolation, but every site is addressed with a long
+  and the parent and state arrays live outside the heap in ByteBuffer chunks, either direct buffers or chunks of a memory-mapped file.
+  Parents are stored as (parent + 1) so that zeroed memory already means "every site is its own root" and no initialisation pass is needed.
+  The rank kept in the state byte saturates at 31; that only weakens the balancing heuristic, it never changes which sites are connected.
+  The grid takes 9 bytes per site. Direct buffers count against -XX:MaxDirectMemorySize, which defaults to the maximum heap size,
+  so without a backing file a large grid needs that flag raised (about 90g for N = 100000); a mapped file has no such limit.
+*/
+
+public class OffHeapPercolation {
+
+    private static final byte OPEN = 1;
+    private static final byte TOP = 2;
+    private static final byte BOTTOM = 4;
+    private static final int RANK_SHIFT = 3;
+    private static final int MAX_RANK = 31;
+
+    private final LongChunks parent;
+    private final ByteChunks state;
+    private final int gridSize;
+    private long openSites;
+    private boolean percolates;
+
+    // N * N grid backed by direct (off-heap) buffers; needs -XX:MaxDirectMemorySize of at least 9 * N * N bytes
+    public OffHeapPercolation(int N) {
+        this(N, null);
+    }
+
+    /*
+      N * N grid backed by a memory-mapped file at the given path, or by direct buffers if the path is null.
+      Any previous contents of the file are discarded: it is truncated, then grown to the required size, and is sparse on most file systems.
+    */
+    public OffHeapPercolation(int N, Path backingFile) {
+        if (N <= 0) throw new IllegalArgumentException("N must be greater than zero");
+        gridSize = N;
+        long sites = (long) N * N;
+        if (backingFile == null) {
+            parent = new LongChunks(sites, null, 0);
+            state = new ByteChunks(sites, null, 0);
+        } else {
+            try (RandomAccessFile file = new RandomAccessFile(backingFile.toFile(), "rw");
+                 FileChannel channel = file.getChannel()) {
+                file.setLength(0); // drop a previous run's sites, which would otherwise be read back as open and joined
+                file.setLength(sites * Long.BYTES + sites);
+                parent = new LongChunks(sites, channel, 0);
+                state = new ByteChunks(sites, channel, sites * Long.BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        openSites = 0;
+        percolates = false;
+    }
+
+    //Sets a given node coordinates to be open (if it isn't open already) and unions it with its open neighbours.
+    public void open(int row, int col) {
+        validateSite(row, col);
+        long site = flattenGrid(row, col);
+        if ((state.get(site) & OPEN) != 0) {
+            return;
+        }
+
+        byte flags = OPEN;
+        if (row == 1) flags |= TOP;
+        if (row == gridSize) flags |= BOTTOM;
+        state.set(site, (byte) (state.get(site) | flags));
+        openSites++;
+
+        if (col > 1) union(site, site - 1);
+        if (col < gridSize) union(site, site + 1);
+        if (row > 1) union(site, site - gridSize);
+        if (row < gridSize) union(site, site + gridSize);
+
+        long root = find(site);
+        if ((state.get(root) & (TOP | BOTTOM)) == (TOP | BOTTOM)) percolates = true;
+    }
+
+    //Joins the component of an open site with a neighbour if that neighbour is open.
+    private void union(long site, long neighbour) {
+        if ((state.get(neighbour) & OPEN) == 0) return;
+        long rootP = find(site);
+        long rootQ = find(neighbour);
+        if (rootP == rootQ) return;
+
+        int rankP = (state.get(rootP) & 0xFF) >>> RANK_SHIFT;
+        int rankQ = (state.get(rootQ) & 0xFF) >>> RANK_SHIFT;
+        int flags = (state.get(rootP) | state.get(rootQ)) & (OPEN | TOP | BOTTOM);
+        if (rankP < rankQ) {
+            setParent(rootP, rootQ);
+            state.set(rootQ, (byte) (flags | (rankQ << RANK_SHIFT)));
+        } else {
+            setParent(rootQ, rootP);
+            if (rankP == rankQ && rankP < MAX_RANK) rankP++;
+            state.set(rootP, (byte) (flags | (rankP << RANK_SHIFT)));
+        }
+    }
+
+    //Finds the root of a site, halving the path on the way up.
+    private long find(long site) {
+        long up = parentOf(site);
+        while (up != site) {
+            long grandParent = parentOf(up);
+            setParent(site, grandParent);
+            site = grandParent;
+            up = parentOf(site);
+        }
+        return site;
+    }
+
+    //A stored zero means the site is its own root, anything else is the parent plus one.
+    private long parentOf(long site) {
+        long stored = parent.get(site);
+        return stored == 0 ? site : stored - 1;
+    }
+
+    private void setParent(long site, long up) {
+        parent.set(site, up + 1);
+    }
+
+    //Converts an index for a 0-based array from two grid coordinates which are 1-based.
+    private long flattenGrid(int row, int col) {
+        return (long) gridSize * (row - 1) + col - 1;
+    }
+
+    //Throws an error if the given coordinates are not valid.
+    private void validateSite(int row, int col) {
+        if (row < 1 || col < 1 || row > gridSize || col > gridSize) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+    }
+
+    //Checks whether this node is open or not.
+    public boolean isOpen(int row, int col) {
+        validateSite(row, col);
+        return (state.get(flattenGrid(row, col)) & OPEN) != 0;
+    }
+
+    //A node is full if it is open and its root has been connected to the top row.
+    public boolean isFull(int row, int col) {
+        validateSite(row, col);
+        long site = flattenGrid(row, col);
+        return (state.get(site) & OPEN) != 0 && (state.get(find(site)) & TOP) != 0;
+    }
+
+    // Test: number of open sites, a long since the grid can hold more than Integer.MAX_VALUE sites
+    public long numberOfOpenSites() {
+        return openSites;
+    }
+
+    //The grid percolates once any root has carried both the top and the bottom flag.
+    public boolean percolates() {
+        return percolates;
+    }
+
+    //Long-indexed array of longs split over ByteBuffer chunks of at most 1 GiB each.
+    private static class LongChunks {
+        private static final int SHIFT = 27;    // 2^27 longs = 1 GiB per chunk
+        private static final long MASK = (1L << SHIFT) - 1;
+        private final ByteBuffer[] chunks;
+
+        LongChunks(long length, FileChannel channel, long offset) {
+            chunks = allocate(length, SHIFT, Long.BYTES, channel, offset);
+        }
+
+        long get(long index) {
+            return chunks[(int) (index >>> SHIFT)].getLong((int) (index & MASK) << 3);
+        }
+
+        void set(long index, long value) {
+            chunks[(int) (index >>> SHIFT)].putLong((int) (index & MASK) << 3, value);
+        }
+    }
+
+    //Long-indexed array of bytes split over ByteBuffer chunks of at most 1 GiB each.
+    private static class ByteChunks {
+        private static final int SHIFT = 30;
+        private static final long MASK = (1L << SHIFT) - 1;
+        private final ByteBuffer[] chunks;
+
+        ByteChunks(long length, FileChannel channel, long offset) {
+            chunks = allocate(length, SHIFT, 1, channel, offset);
+        }
+
+        byte get(long index) {
+            return chunks[(int) (index >>> SHIFT)].get((int) (index & MASK));
+        }
+
+        void set(long index, byte value) {
+            chunks[(int) (index >>> SHIFT)].put((int) (index & MASK), value);
+        }
+    }
+
+    //Allocates zeroed chunks of 2^shift elements each, either as direct buffers or as mapped regions of the channel.
+    private static ByteBuffer[] allocate(long length, int shift, int elementBytes, FileChannel channel, long offset) {
+        long perChunk = 1L << shift;
+        int count = (int) ((length + perChunk - 1) >>> shift);
+        ByteBuffer[] chunks = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long elements = Math.min(perChunk, length - i * perChunk);
+            int bytes = (int) (elements * elementBytes);
+            if (channel == null) {
+                chunks[i] = ByteBuffer.allocateDirect(bytes);
+            } else {
+                try {
+                    chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, offset + i * perChunk * elementBytes, bytes);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+        return chunks;
+    }
+
+    /*
+      test client: opens random sites of an N * N grid until it percolates, optionally backed by a file.
+      Without a file, large grids need the direct memory limit raised, e.g.
+      java -XX:MaxDirectMemorySize=90g OffHeapPercolation 100000   or   java OffHeapPercolation 100000 /tmp/grid.bin
+    */
+    public static void main(String[] args) {
+        int size = Integer.parseInt(args[0]);
+        Path backingFile = args.length >= 2 ? Path.of(args[1]) : null;
+
+        OffHeapPercolation percolation = new OffHeapPercolation(size, backingFile);
+        SplittableRandom random = new SplittableRandom();
+        while (!percolation.percolates()) {
+            percolation.open(random.nextInt(1, size + 1), random.nextInt(1, size + 1));
+        }
+        StdOut.printf("Percolates with %d open sites (%.6f) %n", percolation.numberOfOpenSites(),
+                      (double) percolation.numberOfOpenSites() / ((long) size * size));
+    }
+}
@@ -51,54 +51,111 @@ public class Percolation {
     
     public void open(int row, int col) {
         validateSite(row, col);
+        openSite(flattenGrid(row, col));
+    }
 
-        int shiftRow = row - 1;
-        int shiftCol = col - 1;
-        int flatIndex = flattenGrid(row, col);
+    /*
+     Opens a batch of sites, e.g. a recorded opening sequence, given as parallel arrays of 1-based rows and columns.
+     All coordinates are validated once up front, then every site goes straight to the flat 0-based open without further checks.
+     Returns the index into the arrays of the opening that first made the system percolate,
+     or -1 if it already percolated before the call or still does not percolate afterwards.
+    */
+    public int openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) throw new IllegalArgumentException("rows and cols must have the same length");
+        for (int i = 0; i < rows.length; i++) {
+            validateSite(rows[i], cols[i]);
+        }
+        int percolatedAt = -1;
+        boolean percolated = percolates();
+        for (int i = 0; i < rows.length; i++) {
+            openSite(flattenGrid(rows[i], cols[i]));
+            if (!percolated && percolates()) {
+                percolated = true;
+                percolatedAt = i;
+            }
+        }
+        return percolatedAt;
+    }
+
+    /*
+     Same as openAll(rows, cols) but with packed 0-based site indices, row * N + col.
+     Returns the index of the opening that first made the system percolate, or -1.
+    */
+    public int openAll(int[] sites) {
+        for (int site : sites) {
+            if (site < 0 || site >= gridSquared) throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        int percolatedAt = -1;
+        boolean percolated = percolates();
+        for (int i = 0; i < sites.length; i++) {
+            openSite(sites[i]);
+            if (!percolated && percolates()) {
+                percolated = true;
+                percolatedAt = i;
+            }
+        }
+        return percolatedAt;
+    }
+
+    /*
+     Opens an already validated site given by its flat 0-based index.
+     Neighbours are found with flat index arithmetic, so the only checks left are the grid edges and whether the neighbour is open.
+    */
+    private void openSite(int flatIndex) {
+        int shiftRow = flatIndex / gridSize;
+        int shiftCol = flatIndex - shiftRow * gridSize;
 
         // If already open, stop
-        if (isOpen(row, col)) {
+        if (grid[shiftRow][shiftCol]) {
+            if (PercolationMetrics.ENABLED) PercolationMetrics.open(true);
             return;
         }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.open(false);
 
         // Open Site
         grid[shiftRow][shiftCol] = true;
         openSites++;
 
-        if (row == 1) {  // Top Row
-            wqfGrid.union(virtualTop, flatIndex);
-            wqfFull.union(virtualTop, flatIndex);
+        if (shiftRow == 0) {  // Top Row
+            union(wqfGrid, virtualTop, flatIndex);
+            union(wqfFull, virtualTop, flatIndex);
         }
 
-        if (row == gridSize) {  // Bottom Row
-            wqfGrid.union(virtualBottom, flatIndex);
+        if (shiftRow == gridSize - 1) {  // Bottom Row
+            union(wqfGrid, virtualBottom, flatIndex);
         }
 
         // Check and Open Left
-        if (isOnGrid(row, col - 1) && isOpen(row, col - 1)) {
-            wqfGrid.union(flatIndex, flattenGrid(row, col - 1));
-            wqfFull.union(flatIndex, flattenGrid(row, col - 1));
+        if (shiftCol > 0 && grid[shiftRow][shiftCol - 1]) {
+            union(wqfGrid, flatIndex, flatIndex - 1);
+            union(wqfFull, flatIndex, flatIndex - 1);
         }
 
         // Check and Open Right
-        if (isOnGrid(row, col + 1) && isOpen(row, col + 1)) {
-            wqfGrid.union(flatIndex, flattenGrid(row, col + 1));
-            wqfFull.union(flatIndex, flattenGrid(row, col + 1));
+        if (shiftCol < gridSize - 1 && grid[shiftRow][shiftCol + 1]) {
+            union(wqfGrid, flatIndex, flatIndex + 1);
+            union(wqfFull, flatIndex, flatIndex + 1);
         }
 
         // Check and Open Up
-        if (isOnGrid(row - 1, col) && isOpen(row - 1, col)) {
-            wqfGrid.union(flatIndex, flattenGrid(row - 1, col));
-            wqfFull.union(flatIndex, flattenGrid(row - 1, col));
+        if (shiftRow > 0 && grid[shiftRow - 1][shiftCol]) {
+            union(wqfGrid, flatIndex, flatIndex - gridSize);
+            union(wqfFull, flatIndex, flatIndex - gridSize);
         }
 
         // Check and Open Down
-        if (isOnGrid(row + 1, col) && isOpen(row + 1, col)) {
-            wqfGrid.union(flatIndex, flattenGrid(row + 1, col));
-            wqfFull.union(flatIndex, flattenGrid(row + 1, col));
+        if (shiftRow < gridSize - 1 && grid[shiftRow + 1][shiftCol]) {
+            union(wqfGrid, flatIndex, flatIndex + gridSize);
+            union(wqfFull, flatIndex, flatIndex + gridSize);
         }
     }
     
+    //Unions two nodes of one of the two union-finds, counting the call when metrics are enabled.
+    private void union(WeightedQuickUnionUF uf, int p, int q) {
+        if (PercolationMetrics.ENABLED) PercolationMetrics.union(2);
+        uf.union(p, q);
+    }
+
     /*
       Converts an index for a 0-based array from two grid coordinates which are 1-based.
       First checks to see if the coordinates are out of bounds.
@@ -135,6 +192,7 @@ public class Percolation {
     
     public boolean isFull(int row, int col) {
         validateSite(row, col);
+        if (PercolationMetrics.ENABLED) PercolationMetrics.finds(2);
         return wqfFull.connected(virtualTop, flattenGrid(row, col));
     }
 
@@ -145,6 +203,7 @@ public class Percolation {
 
     //the grid percolate if the virtual top node connects to the virtual bottom node.
     public boolean percolates() {
+        if (PercolationMetrics.ENABLED) PercolationMetrics.finds(2);
         return wqfGrid.connected(virtualTop, virtualBottom);
     }
 
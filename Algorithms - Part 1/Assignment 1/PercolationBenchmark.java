@@ -0,0 +1,232 @@
+import edu.princeton.cs.algs4.StdOut;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.SplittableRandom;
+
+/*
+ Micro-benchmarks for the percolation engines, timed with the harness at the top of the class.
+ Every workload uses a fixed seed and runs on the calling thread, so two runs on the same box are directly comparable.
+
+ Covers:
+   open       every site of an N * N grid in a shuffled order and in an adversarial checkerboard-then-fill order,
+              for the WeightedQuickUnionUF baseline (Percolation) and for CompactPercolation
+   isFull / percolates query throughput on a grid opened up to p = 0.6
+   full PercolationStats runs at N = 64, 512, 2048 and 8192 (or the sizes given as arguments); N = 8192 needs about -Xmx4g
+*/
+
+public class PercolationBenchmark {
+    /*
+     Harness, run the same way JMH runs a benchmark: warmup iterations that are thrown away, then timed iterations of a fixed length,
+     reported as average time per operation with a 95% confidence error and the bytes allocated per operation
+     (from the per-thread allocation counter, like JMH's gc profiler). Results go into a sink that is printed at the end
+     so the JIT cannot drop the work. This harness is the same code in PercolationBenchmark (Assignment 1) and QueueBenchmark
+     (Assignment 2), duplicated on purpose because each assignment folder compiles on its own.
+    */
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+
+    private static long sink;
+
+    //One benchmark operation; returns how many logical operations it did and feeds its result to the sink.
+    private interface Workload {
+        long run();
+    }
+
+    //Runs warmup and measured iterations of a workload and prints one result line in the given unit (ns/op, us/op or ms/op).
+    private static void measure(String name, String unit, Workload workload) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean allocation = threads instanceof com.sun.management.ThreadMXBean
+                             && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(workload);
+        }
+        double[] nanosPerOp = new double[MEASURE_ITERATIONS];
+        long allocated = 0;
+        long operations = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            long before = allocation ? allocatedBytes(threads) : 0L;
+            long[] result = iteration(workload);
+            if (allocation) allocated += allocatedBytes(threads) - before;
+            operations += result[1];
+            nanosPerOp[i] = (double) result[0] / result[1];
+        }
+        double mean = 0;
+        for (double x : nanosPerOp) mean += x / MEASURE_ITERATIONS;
+        double squares = 0;
+        for (double x : nanosPerOp) squares += (x - mean) * (x - mean);
+        double error = 1.96 * Math.sqrt(squares / (MEASURE_ITERATIONS - 1) / MEASURE_ITERATIONS);
+        double bytesPerOp = allocation ? (double) allocated / operations : Double.NaN;
+        StdOut.printf("%-48s avgt %3d %14.3f +- %12.3f %-6s %14.1f B/op%n", name, MEASURE_ITERATIONS,
+                      mean / unitNanos(unit), error / unitNanos(unit), unit, bytesPerOp);
+    }
+
+    //Repeats the workload until the iteration time is used up; returns elapsed nanos and operations done.
+    private static long[] iteration(Workload workload) {
+        long start = System.nanoTime();
+        long elapsed;
+        long operations = 0;
+        do {
+            operations += workload.run();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        return new long[] { elapsed, operations };
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double unitNanos(String unit) {
+        switch (unit) {
+            case "us/op": return 1e3;
+            case "ms/op": return 1e6;
+            default: return 1;
+        }
+    }
+
+    private static void printHeader() {
+        StdOut.printf("%-48s mode %3s %14s    %12s %-6s %14s%n", "Benchmark", "Cnt", "Score", "Error", "Units", "Alloc");
+    }
+
+    private static final long SEED = 42L;
+    private static final int OPEN_GRID = 512;
+    private static final int QUERIES = 1 << 16;
+
+    //Every site of an N * N grid as 1-based rows and cols, shuffled with the given seed.
+    private static int[][] shuffledOrder(int n, long seed) {
+        int sites = n * n;
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int i = sites - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+        return toRowsCols(n, order);
+    }
+
+    //Opens one colour of a checkerboard first, so nothing is joined, then the other colour, so every open merges up to four components.
+    private static int[][] checkerboardOrder(int n) {
+        int[] order = new int[n * n];
+        int next = 0;
+        for (int colour = 0; colour < 2; colour++) {
+            for (int site = 0; site < n * n; site++) {
+                if ((site / n + site % n) % 2 == colour) order[next++] = site;
+            }
+        }
+        return toRowsCols(n, order);
+    }
+
+    private static int[][] toRowsCols(int n, int[] order) {
+        int[] rows = new int[order.length];
+        int[] cols = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            rows[i] = order[i] / n + 1;
+            cols[i] = order[i] % n + 1;
+        }
+        return new int[][] { rows, cols };
+    }
+
+    private static void openBenchmarks(int n) {
+        String[] names = { "random", "checkerboard" };
+        int[][][] sequences = { shuffledOrder(n, SEED), checkerboardOrder(n) };
+        for (int o = 0; o < sequences.length; o++) {
+            int[] rows = sequences[o][0];
+            int[] cols = sequences[o][1];
+            measure("Percolation.open " + names[o] + " N=" + n, "ns/op", () -> {
+                Percolation percolation = new Percolation(n);
+                for (int i = 0; i < rows.length; i++) {
+                    percolation.open(rows[i], cols[i]);
+                }
+                sink += percolation.numberOfOpenSites();
+                return rows.length;
+            });
+            measure("CompactPercolation.open " + names[o] + " N=" + n, "ns/op", () -> {
+                CompactPercolation percolation = new CompactPercolation(n);
+                for (int i = 0; i < rows.length; i++) {
+                    percolation.open(rows[i], cols[i]);
+                }
+                sink += percolation.numberOfOpenSites();
+                return rows.length;
+            });
+        }
+    }
+
+    private static void queryBenchmarks(int n) {
+        int[][] order = shuffledOrder(n, SEED);
+        int opened = (int) (0.6 * n * n);
+        Percolation percolation = new Percolation(n);
+        CompactPercolation compact = new CompactPercolation(n);
+        for (int i = 0; i < opened; i++) {
+            percolation.open(order[0][i], order[1][i]);
+            compact.open(order[0][i], order[1][i]);
+        }
+        int[][] queries = shuffledOrder(n, SEED + 1);
+        int count = Math.min(QUERIES, queries[0].length);
+        measure("Percolation.isFull N=" + n, "ns/op", () -> {
+            int full = 0;
+            for (int i = 0; i < count; i++) {
+                if (percolation.isFull(queries[0][i], queries[1][i])) full++;
+            }
+            sink += full;
+            return count;
+        });
+        measure("CompactPercolation.isFull N=" + n, "ns/op", () -> {
+            int full = 0;
+            for (int i = 0; i < count; i++) {
+                if (compact.isFull(queries[0][i], queries[1][i])) full++;
+            }
+            sink += full;
+            return count;
+        });
+        measure("Percolation.percolates N=" + n, "ns/op", () -> {
+            int yes = 0;
+            for (int i = 0; i < count; i++) {
+                if (percolation.percolates()) yes++;
+            }
+            sink += yes;
+            return count;
+        });
+        measure("CompactPercolation.percolates N=" + n, "ns/op", () -> {
+            int yes = 0;
+            for (int i = 0; i < count; i++) {
+                if (compact.percolates()) yes++;
+            }
+            sink += yes;
+            return count;
+        });
+    }
+
+    //One single-threaded seeded PercolationStats run per operation, with fewer trials on the larger grids.
+    private static void statsBenchmarks(int[] sizes) {
+        for (int n : sizes) {
+            int trials = (int) Math.max(1, Math.min(16, (1L << 20) / ((long) n * n)));
+            measure("PercolationStats N=" + n + " T=" + trials, "ms/op", () -> {
+                PercolationStats stats = new PercolationStats(n, trials, SEED, 1);
+                sink += Double.doubleToLongBits(stats.mean());
+                return 1;
+            });
+        }
+    }
+
+    // runs every benchmark; optional arguments replace the PercolationStats grid sizes
+    public static void main(String[] args) {
+        int[] sizes = { 64, 512, 2048, 8192 };
+        if (args.length > 0) {
+            sizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                sizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+        printHeader();
+        openBenchmarks(OPEN_GRID);
+        queryBenchmarks(OPEN_GRID);
+        statsBenchmarks(sizes);
+        StdOut.println("sink: " + sink);
+    }
+}
@@ -0,0 +1,153 @@
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+  Optional counters for percolation runs, switched on with -Dpercolation.metrics=true.
+  ENABLED is a static final flag, so when it is off the JIT drops every guarded call and the engines pay nothing.
+  Counters are LongAdders because the parallel PercolationStats engine updates them from several threads.
+  Find path lengths are only known for engines with their own union-find (LatticePercolation, and so CompactPercolation);
+  finds done inside WeightedQuickUnionUF are counted but left out of the average path length.
+*/
+
+public final class PercolationMetrics {
+    public static final boolean ENABLED = Boolean.getBoolean("percolation.metrics");
+
+    private static final LongAdder UNIONS = new LongAdder();
+    private static final LongAdder FINDS = new LongAdder();
+    private static final LongAdder MEASURED_FINDS = new LongAdder();
+    private static final LongAdder FIND_STEPS = new LongAdder();
+    private static final LongAdder OPENS = new LongAdder();
+    private static final LongAdder REDUNDANT_OPENS = new LongAdder();
+    private static final LongAdder TRIALS = new LongAdder();
+    private static final LongAdder TRIAL_NANOS = new LongAdder();
+    private static final LongAccumulator MAX_TRIAL_NANOS = new LongAccumulator(Long::max, 0);
+    private static final LongAdder RUN_NANOS = new LongAdder();
+
+    private PercolationMetrics() { }
+
+    //One union call; finds counts the finds it does internally.
+    static void union(int finds) {
+        UNIONS.increment();
+        FINDS.add(finds);
+    }
+
+    //Finds whose path length is not visible, e.g. inside WeightedQuickUnionUF.connected.
+    static void finds(int finds) {
+        FINDS.add(finds);
+    }
+
+    //One find that walked the given number of parent links.
+    static void find(int steps) {
+        FINDS.increment();
+        MEASURED_FINDS.increment();
+        FIND_STEPS.add(steps);
+    }
+
+    //One call to open; redundant if the site was already open.
+    static void open(boolean redundant) {
+        OPENS.increment();
+        if (redundant) REDUNDANT_OPENS.increment();
+    }
+
+    //One finished trial and the time it took to percolate.
+    static void trial(long nanos) {
+        TRIALS.increment();
+        TRIAL_NANOS.add(nanos);
+        MAX_TRIAL_NANOS.accumulate(nanos);
+    }
+
+    //Wall-clock time of a whole PercolationStats run, used for trials per second.
+    static void run(long nanos) {
+        RUN_NANOS.add(nanos);
+    }
+
+    //Clears every counter, e.g. between two runs in the same JVM.
+    public static void reset() {
+        UNIONS.reset();
+        FINDS.reset();
+        MEASURED_FINDS.reset();
+        FIND_STEPS.reset();
+        OPENS.reset();
+        REDUNDANT_OPENS.reset();
+        TRIALS.reset();
+        TRIAL_NANOS.reset();
+        MAX_TRIAL_NANOS.reset();
+        RUN_NANOS.reset();
+    }
+
+    //Current values of every counter.
+    public static Snapshot snapshot() {
+        return new Snapshot(UNIONS.sum(), FINDS.sum(), MEASURED_FINDS.sum(), FIND_STEPS.sum(), OPENS.sum(),
+                            REDUNDANT_OPENS.sum(), TRIALS.sum(), TRIAL_NANOS.sum(), MAX_TRIAL_NANOS.get(), RUN_NANOS.sum());
+    }
+
+    //Immutable copy of the counters with the derived averages and a CSV or JSON form.
+    public static final class Snapshot {
+        private static final String[] NAMES = {
+            "unions", "finds", "avgFindPathLength", "opens", "redundantOpens",
+            "trials", "meanTrialMillis", "maxTrialMillis", "trialsPerSecond"
+        };
+
+        public final long unions;
+        public final long finds;
+        public final double avgFindPathLength;
+        public final long opens;
+        public final long redundantOpens;
+        public final long trials;
+        public final double meanTrialMillis;
+        public final double maxTrialMillis;
+        public final double trialsPerSecond;
+
+        private Snapshot(long unions, long finds, long measuredFinds, long findSteps, long opens, long redundantOpens,
+                         long trials, long trialNanos, long maxTrialNanos, long runNanos) {
+            this.unions = unions;
+            this.finds = finds;
+            this.avgFindPathLength = measuredFinds == 0 ? Double.NaN : (double) findSteps / measuredFinds;
+            this.opens = opens;
+            this.redundantOpens = redundantOpens;
+            this.trials = trials;
+            this.meanTrialMillis = trials == 0 ? Double.NaN : trialNanos / 1e6 / trials;
+            this.maxTrialMillis = maxTrialNanos / 1e6;
+            this.trialsPerSecond = runNanos == 0 ? Double.NaN : trials / (runNanos / 1e9);
+        }
+
+        private Object[] values() {
+            return new Object[] {
+                unions, finds, avgFindPathLength, opens, redundantOpens, trials, meanTrialMillis, maxTrialMillis, trialsPerSecond
+            };
+        }
+
+        //Header line followed by one line of values.
+        public String toCsv() {
+            Object[] values = values();
+            StringBuilder header = new StringBuilder();
+            StringBuilder row = new StringBuilder();
+            for (int i = 0; i < NAMES.length; i++) {
+                if (i > 0) {
+                    header.append(',');
+                    row.append(',');
+                }
+                header.append(NAMES[i]);
+                row.append(values[i]);
+            }
+            return header + System.lineSeparator() + row;
+        }
+
+        //Flat JSON object; NaN averages are written as null.
+        public String toJson() {
+            Object[] values = values();
+            StringBuilder json = new StringBuilder("{");
+            for (int i = 0; i < NAMES.length; i++) {
+                if (i > 0) json.append(", ");
+                Object value = values[i];
+                boolean missing = value instanceof Double && ((Double) value).isNaN();
+                json.append('"').append(NAMES[i]).append("\": ").append(missing ? "null" : value);
+            }
+            return json.append('}').toString();
+        }
+
+        public String toString() {
+            return toCsv();
+        }
+    }
+}
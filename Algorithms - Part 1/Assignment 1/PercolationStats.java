@@ -1,28 +1,42 @@
 import edu.princeton.cs.algs4.StdOut;
 import edu.princeton.cs.algs4.StdRandom;
-import edu.princeton.cs.algs4.StdStats;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /*
  Given two integers N & T this class runs T percolation experiments over a N * N percolation grid to generate the percent of the nodes that have to be open in order for said grid to percolate.
  After there have been T number of experiments run the mean,standard deviation and both the low and high confidence bounds are available.
+ Trials can also be spread over a ForkJoinPool. Every trial then draws from its own SplittableRandom split off a seeded root,
+ so for a given seed the results are the same no matter how many threads run them.
+ In sweep mode (Newman-Ziff) each trial shuffles every site once and opens them in that order, so no draw is ever wasted on an open site.
+ Since percolation never turns off again, the step at which each trial first percolates gives the whole curve P(percolates | k open sites);
+ those T counts are kept sorted, so the curve takes O(T) memory and each point of it is a binary search.
+ Statistics are kept in a streaming RunningStats accumulator. The adaptive mode keeps running trials until the 95% confidence interval
+ is narrower than a target width or a time budget runs out; it keeps nothing per trial, so it runs in O(1) memory and has no curve.
 */
 
 public class PercolationStats {
-    private int trialCount;
-    private double[] trialResults;
+    private static final int MIN_ADAPTIVE_TRIALS = 30;
+
+    private final int[] thresholds;   // open-site count at which each trial first percolated, sorted; null in adaptive mode
+    private final RunningStats stats = new RunningStats();
 
 
     // perform trials independent experiments on an n-by-n grid
     public PercolationStats(int n, int trials) {
         if (n <= 0 || trials <= 0) {
-            throw new IllegalArgumentException("N and T must be <= 0");
+            throw new IllegalArgumentException("N and T must be greater than zero");
         }
         int gridSize = n;
-        trialCount = trials;
-        trialResults = new double[trialCount];
+        int trialCount = trials;
+        int[] counts = new int[trialCount];
+        long runStart = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
         
         //Create T instances of new Percolation object of size N.
         for (int trial = 0; trial < trialCount; trial++) {
+            long trialStart = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
             Percolation percolation = new Percolation(gridSize);
             
             //Continue to open nodes until the grid percolates.
@@ -33,47 +47,258 @@ public class PercolationStats {
             }
             int openSites = percolation.numberOfOpenSites();
             
-            //Store the result in an array to run queries over it later.
-            double result = (double) openSites / (gridSize * gridSize);
-            trialResults[trial] = result;
+            //Keep the open-site count for the curve and the fraction for the statistics.
+            counts[trial] = openSites;
+            stats.add((double) openSites / (gridSize * gridSize));
+            if (PercolationMetrics.ENABLED) PercolationMetrics.trial(System.nanoTime() - trialStart);
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.run(System.nanoTime() - runStart);
+        Arrays.sort(counts);
+        thresholds = counts;
+    }
+
+    // perform trials independent experiments on an n-by-n grid, spread across the given number of threads
+    public PercolationStats(int n, int trials, long seed, int threads) {
+        this(n, trials, seed, threads, false);
+    }
+
+    // same as above, but when sweep is set every trial opens sites in one pre-shuffled order instead of retrying random draws
+    public PercolationStats(int n, int trials, long seed, int threads, boolean sweep) {
+        if (n <= 0 || trials <= 0) {
+            throw new IllegalArgumentException("N and T must be greater than zero");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be greater than zero");
+        }
+        int trialCount = trials;
+        double[] trialResults = new double[trialCount];
+
+        //Split one generator per trial up front so a trial's random stream never depends on which worker runs it.
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[trialCount];
+        for (int trial = 0; trial < trialCount; trial++) {
+            randoms[trial] = root.split();
+        }
+
+        long runStart = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new TrialTask(n, sweep, randoms, trialResults, 0, trialCount));
+        } finally {
+            pool.shutdown();
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.run(System.nanoTime() - runStart);
+        for (double result : trialResults) {
+            stats.add(result);
+        }
+        thresholds = sortedThresholds(trialResults, n * n);
+    }
+
+    //Turns open-site fractions back into open-site counts and sorts them.
+    private static int[] sortedThresholds(double[] results, int sites) {
+        int[] counts = new int[results.length];
+        for (int i = 0; i < results.length; i++) {
+            counts[i] = (int) Math.round(results[i] * sites);
+        }
+        Arrays.sort(counts);
+        return counts;
+    }
+
+    /*
+     Keeps running sweep trials on an n-by-n grid until the 95% confidence interval is narrower than targetWidth
+     or timeBudgetMillis has passed, whichever comes first. At least MIN_ADAPTIVE_TRIALS are run so a few lucky
+     early results cannot stop the run. Only the running statistics are kept, so the percolation curve is not available.
+    */
+    public PercolationStats(int n, double targetWidth, long timeBudgetMillis, long seed) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("N must be greater than zero");
+        }
+        if (!(targetWidth > 0) || timeBudgetMillis <= 0) {
+            throw new IllegalArgumentException("target width and time budget must be greater than zero");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        long runStart = System.nanoTime();
+        long deadline = runStart + timeBudgetMillis * 1_000_000L;
+        do {
+            stats.add(runSweep(n, random.split()));
+        } while (stats.count() < MIN_ADAPTIVE_TRIALS
+                 || (2 * stats.halfWidth() >= targetWidth && System.nanoTime() - deadline < 0));
+        if (PercolationMetrics.ENABLED) PercolationMetrics.run(System.nanoTime() - runStart);
+        thresholds = null;
+    }
+
+    //Runs a single trial with its own generator and returns the fraction of open sites once the grid percolates.
+    private static double runTrial(int gridSize, SplittableRandom random) {
+        long trialStart = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        Percolation percolation = new Percolation(gridSize);
+        while (!percolation.percolates()) {
+            int row = random.nextInt(1, gridSize + 1);
+            int col = random.nextInt(1, gridSize + 1);
+            percolation.open(row, col);
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.trial(System.nanoTime() - trialStart);
+        return (double) percolation.numberOfOpenSites() / (gridSize * gridSize);
+    }
+
+    /*
+     Runs a single Newman-Ziff sweep: shuffles the flat site indices once and opens them in that order until the grid percolates.
+     Every opening hits a new site, so the number of steps taken is exactly the number of open sites at the threshold.
+    */
+    private static double runSweep(int gridSize, SplittableRandom random) {
+        long trialStart = PercolationMetrics.ENABLED ? System.nanoTime() : 0L;
+        int sites = gridSize * gridSize;
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) {
+            order[i] = i;
+        }
+        CompactPercolation percolation = new CompactPercolation(gridSize);
+        int step = 0;
+        //Shuffle lazily: only the prefix that is actually opened ever gets drawn.
+        while (!percolation.percolates()) {
+            int swap = random.nextInt(step, sites);
+            int site = order[swap];
+            order[swap] = order[step];
+            order[step] = site;
+            percolation.open(site / gridSize + 1, site % gridSize + 1);
+            step++;
+        }
+        if (PercolationMetrics.ENABLED) PercolationMetrics.trial(System.nanoTime() - trialStart);
+        return (double) step / sites;
+    }
+
+    //Splits a range of trials in half until it is small enough to run directly; each trial writes its own slot of the results.
+    private static class TrialTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 8;
+        private final int gridSize;
+        private final boolean sweep;
+        private final SplittableRandom[] randoms;
+        private final double[] results;
+        private final int lo;
+        private final int hi;
+
+        TrialTask(int gridSize, boolean sweep, SplittableRandom[] randoms, double[] results, int lo, int hi) {
+            this.gridSize = gridSize;
+            this.sweep = sweep;
+            this.randoms = randoms;
+            this.results = results;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo <= THRESHOLD) {
+                for (int trial = lo; trial < hi; trial++) {
+                    results[trial] = sweep ? runSweep(gridSize, randoms[trial]) : runTrial(gridSize, randoms[trial]);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new TrialTask(gridSize, sweep, randoms, results, lo, mid),
+                      new TrialTask(gridSize, sweep, randoms, results, mid, hi));
         }
     }
 
 
     // sample mean of percolation threshold
     public double mean() {
-        return StdStats.mean(trialResults);
+        return stats.mean();
     }
 
     // sample standard deviation of percolation threshold
     public double stddev() {
-        return StdStats.stddev(trialResults);
+        return stats.stddev();
     }
 
     // low  endpoint of 95% confidence interval
     public double confidenceLo() {
-        return mean() - ((1.96 * stddev()) / Math.sqrt(trialCount));
-
+        return stats.confidenceLo();
     }
 
     // high endpoint of 95% confidence interval
     public double confidenceHi() {
-        return mean() + ((1.96 * stddev()) / Math.sqrt(trialCount));
+        return stats.confidenceHi();
+    }
+
+    // number of trials that were run, mostly useful for the adaptive mode
+    public int trials() {
+        return (int) stats.count();
+    }
+
+    /*
+     The percolation curve as the sorted open-site counts at which the trials first percolated, one per trial.
+     P(percolates | k open sites) is the fraction of them that are at most k; see percolationProbability().
+     Throws IllegalStateException in adaptive mode, which does not keep the per-trial counts.
+    */
+    public int[] percolationCurve() {
+        requireCurve();
+        return thresholds.clone();
+    }
+
+    // fraction of trials that percolate with k sites open, found by binary search over the sorted thresholds
+    public double percolationProbability(int k) {
+        requireCurve();
+        int lo = 0;
+        int hi = thresholds.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (thresholds[mid] <= k) lo = mid + 1;
+            else hi = mid;
+        }
+        return (double) lo / thresholds.length;
+    }
+
+    private void requireCurve() {
+        if (thresholds == null) {
+            throw new IllegalStateException("the percolation curve is not kept in adaptive mode");
+        }
     }
 
     // test client (described below)
     public static void main(String[] args) {
         int gridSize = 10;
         int trialCount = 10;
+        if (args.length >= 4 && args[1].equals("adaptive")) {
+            //Adaptive mode: n adaptive targetWidth timeBudgetMillis [seed]
+            gridSize = Integer.parseInt(args[0]);
+            double targetWidth = Double.parseDouble(args[2]);
+            long timeBudget = Long.parseLong(args[3]);
+            long seed = args.length >= 5 ? Long.parseLong(args[4]) : 0L;
+            PercolationStats ps = new PercolationStats(gridSize, targetWidth, timeBudget, seed);
+            StdOut.println("trials                  = " + ps.trials());
+            StdOut.println("mean                    = " + ps.mean());
+            StdOut.println("stddev                  = " + ps.stddev());
+            StdOut.println("95% confidence interval = " + ps.confidenceLo() + ", " + ps.confidenceHi());
+            printMetrics();
+            return;
+        }
         if (args.length >= 2) {
             gridSize = Integer.parseInt(args[0]);
             trialCount = Integer.parseInt(args[1]);
         }
-        PercolationStats ps = new PercolationStats(gridSize, trialCount);
+        PercolationStats ps;
+        if (args.length >= 3) {
+            //Optional arguments: number of threads and seed for the parallel engine, then "sweep" for Newman-Ziff mode.
+            int threads = Integer.parseInt(args[2]);
+            long seed = args.length >= 4 ? Long.parseLong(args[3]) : 0L;
+            boolean sweep = args.length >= 5 && args[4].equals("sweep");
+            ps = new PercolationStats(gridSize, trialCount, seed, threads, sweep);
+        } else {
+            ps = new PercolationStats(gridSize, trialCount);
+        }
 
         String confidence = ps.confidenceLo() + ", " + ps.confidenceHi();
         StdOut.println("mean                    = " + ps.mean());
         StdOut.println("stddev                  = " + ps.stddev());
         StdOut.println("95% confidence interval = " + confidence);
+        printMetrics();
+    }
+
+    //Dumps the metrics snapshot when -Dpercolation.metrics=true, as CSV unless -Dpercolation.metrics.format=json.
+    private static void printMetrics() {
+        if (!PercolationMetrics.ENABLED) return;
+        PercolationMetrics.Snapshot snapshot = PercolationMetrics.snapshot();
+        boolean json = "json".equals(System.getProperty("percolation.metrics.format"));
+        StdOut.println(json ? snapshot.toJson() : snapshot.toCsv());
     }
 }
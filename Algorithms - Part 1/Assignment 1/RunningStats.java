@@ -0,0 +1,50 @@
+/*
+ Streaming mean and sample standard deviation over a sequence of values, using Welford's update.
+ Only the count, the running mean and the running sum of squared deviations are kept, so memory is O(1) however many values are added.
+ The confidence interval helpers use the same 1.96 normal quantile as PercolationStats.
+*/
+
+public class RunningStats {
+    private static final double CONFIDENCE_95 = 1.96;
+
+    private long count;
+    private double mean;
+    private double squaredDeviations;
+
+    //Adds one value, updating the mean and the sum of squared deviations in place.
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squaredDeviations += delta * (value - mean);
+    }
+
+    public long count() {
+        return count;
+    }
+
+    //Mean of the values added so far, NaN if there are none.
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    //Sample standard deviation of the values added so far, NaN if there are fewer than two.
+    public double stddev() {
+        return count < 2 ? Double.NaN : Math.sqrt(squaredDeviations / (count - 1));
+    }
+
+    //Half of the width of the 95% confidence interval around the mean.
+    public double halfWidth() {
+        return CONFIDENCE_95 * stddev() / Math.sqrt(count);
+    }
+
+    // low  endpoint of 95% confidence interval
+    public double confidenceLo() {
+        return mean() - halfWidth();
+    }
+
+    // high endpoint of 95% confidence interval
+    public double confidenceHi() {
+        return mean() + halfWidth();
+    }
+}
@@ -0,0 +1,314 @@
+import edu.princeton.cs.algs4.StdOut;
+import edu.princeton.cs.algs4.WeightedQuickUnionUF;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+  Percolation over one large N * N grid where the union-find work is split across threads.
+  The grid is cut into horizontal strips, each with its own local union-find that never crosses the strip edges.
+  The first and last row of every strip also have nodes in two small WeightedQuickUnionUF objects over the strip edges only,
+  one with a virtual top and bottom for percolates() and one with just the virtual top for isFull(), so there is no backwash.
+  Every local root that touches a strip edge is labelled with one of its edge nodes, which is how its component reaches the boundary.
+  open(row, col), with the same 1-based coordinates as Percolation.open, unions inside the strip and updates the boundary straight away.
+  openAll() takes a whole batch, groups it by strip and opens the strips in parallel on the common ForkJoinPool;
+  strips never share a site, so the workers need no locking, and the next query rebuilds the boundary from the 2 * N * strips edge nodes.
+  percolates() and isFull() give the same answers as the sequential Percolation class.
+*/
+
+public class StripPercolation {
+
+    private boolean[] open;
+    private int[] parent;
+    private int[] boundaryLabel;
+    private WeightedQuickUnionUF boundaryGrid;
+    private WeightedQuickUnionUF boundaryFull;
+    private int gridSize;
+    private int stripCount;
+    private int stripHeight;
+    private int virtualTop;
+    private int virtualBottom;
+    private int openSites;
+    private boolean stale;
+
+    /*
+      Initialises an N * N grid of blocked sites split into the given number of strips (at most N).
+      N dimensions of the grid, strips number of strips, which is also how many tasks openAll() can run at once
+    */
+
+    public StripPercolation(int N, int strips) {
+        if (N <= 0) throw new IllegalArgumentException("N must be greater than zero");
+        if (strips <= 0) throw new IllegalArgumentException("strips must be greater than zero");
+        if ((long) N * N > Integer.MAX_VALUE) throw new IllegalArgumentException("N * N must fit in an int");
+        gridSize = N;
+        stripHeight = (N + Math.min(strips, N) - 1) / Math.min(strips, N);
+        stripCount = (N + stripHeight - 1) / stripHeight;
+        open = new boolean[N * N];
+        parent = new int[N * N];
+        boundaryLabel = new int[N * N];
+        for (int site = 0; site < N * N; site++) {
+            parent[site] = site;
+            boundaryLabel[site] = -1;
+        }
+        virtualTop = stripCount * 2 * N;
+        virtualBottom = virtualTop + 1;
+        boundaryGrid = new WeightedQuickUnionUF(virtualBottom + 1); // includes virtual top and bottom
+        boundaryFull = new WeightedQuickUnionUF(virtualTop + 1);    // includes virtual top
+        openSites = 0;
+        stale = false;
+    }
+
+    //Opens a site, unions it inside its strip and brings the boundary union-finds up to date.
+    public void open(int row, int col) {
+        validateSite(row, col);
+        if (openSite(flattenGrid(row, col), true)) openSites++;
+    }
+
+    /*
+     Opens a batch of sites given as parallel arrays of 1-based rows and columns.
+     Unlike Percolation.openAll it does not report when the system first percolated, since the strips are opened out of order.
+    */
+    public void openAll(int[] rows, int[] cols) {
+        if (rows.length != cols.length) throw new IllegalArgumentException("rows and cols must have the same length");
+        int[] sites = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            validateSite(rows[i], cols[i]);
+            sites[i] = flattenGrid(rows[i], cols[i]);
+        }
+        openSites(sites);
+    }
+
+    //Same as openAll(rows, cols) but with packed 0-based site indices, row * N + col.
+    public void openAll(int[] sites) {
+        for (int site : sites) {
+            if (site < 0 || site >= gridSize * gridSize) throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+        openSites(sites);
+    }
+
+    /*
+     Sorts the sites by strip with a counting sort, keeping their order within a strip, then opens the strips in parallel.
+     The workers only touch their own strip, so they leave the shared boundary union-finds alone; the next query stitches them.
+    */
+    private void openSites(int[] sites) {
+        int[] start = new int[stripCount + 1];
+        for (int site : sites) {
+            start[stripOf(site) + 1]++;
+        }
+        for (int strip = 0; strip < stripCount; strip++) {
+            start[strip + 1] += start[strip];
+        }
+        int[] byStrip = new int[sites.length];
+        int[] next = start.clone();
+        for (int site : sites) {
+            byStrip[next[stripOf(site)]++] = site;
+        }
+
+        int[] opened = new int[stripCount];
+        ForkJoinPool.commonPool().invoke(new OpenTask(this, byStrip, start, opened, 0, stripCount));
+        for (int count : opened) {
+            if (count > 0) stale = true;
+            openSites += count;
+        }
+    }
+
+    //Opens the batched sites of strips [lo, hi), splitting the range until one strip is left; each strip counts its own new openings.
+    private static class OpenTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final StripPercolation grid;
+        private final int[] byStrip;
+        private final int[] start;
+        private final int[] opened;
+        private final int lo;
+        private final int hi;
+
+        OpenTask(StripPercolation grid, int[] byStrip, int[] start, int[] opened, int lo, int hi) {
+            this.grid = grid;
+            this.byStrip = byStrip;
+            this.start = start;
+            this.opened = opened;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        protected void compute() {
+            if (hi - lo == 1) {
+                for (int i = start[lo]; i < start[lo + 1]; i++) {
+                    if (grid.openSite(byStrip[i], false)) opened[lo]++;
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new OpenTask(grid, byStrip, start, opened, lo, mid),
+                      new OpenTask(grid, byStrip, start, opened, mid, hi));
+        }
+    }
+
+    /*
+     Marks a site open and unions it with its open neighbours in the same strip; false if it was already open.
+     A site on a strip edge is its own first boundary label. With track set it is also linked in the boundary union-finds
+     to the virtual nodes and to the open site across the strip edge; without it that is left to stitch().
+    */
+    private boolean openSite(int site, boolean track) {
+        if (open[site]) return false;
+        open[site] = true;
+        int row = site / gridSize;
+        int col = site % gridSize;
+        int firstRow = row - row % stripHeight;
+        int lastRow = Math.min(firstRow + stripHeight, gridSize) - 1;
+        if (row == firstRow || row == lastRow) {
+            boundaryLabel[site] = boundaryNode(site);
+            if (track) linkEdge(site);
+        }
+        if (col > 0 && open[site - 1]) union(site, site - 1, track);
+        if (col < gridSize - 1 && open[site + 1]) union(site, site + 1, track);
+        if (row > firstRow && open[site - gridSize]) union(site, site - gridSize, track);
+        if (row < lastRow && open[site + gridSize]) union(site, site + gridSize, track);
+        return true;
+    }
+
+    //Links an open strip edge site to the virtual nodes and to the open sites across the strip edges next to it.
+    private void linkEdge(int site) {
+        int row = site / gridSize;
+        int node = boundaryNode(site);
+        if (row == 0) unionBoundary(virtualTop, node);
+        if (row == gridSize - 1) boundaryGrid.union(node, virtualBottom);
+        if (row % stripHeight == 0 && row > 0 && open[site - gridSize]) {
+            unionBoundary(node, boundaryNode(site - gridSize));
+        }
+        if ((row + 1) % stripHeight == 0 && row < gridSize - 1 && open[site + gridSize]) {
+            unionBoundary(node, boundaryNode(site + gridSize));
+        }
+    }
+
+    //Checks whether this node is open or not.
+    public boolean isOpen(int row, int col) {
+        validateSite(row, col);
+        return open[flattenGrid(row, col)];
+    }
+
+    /*
+     A node is full if it is open and its local component reaches a strip edge that is connected to the virtual top.
+     Components that touch no strip edge cannot reach the top row, which is itself a strip edge.
+    */
+    public boolean isFull(int row, int col) {
+        validateSite(row, col);
+        int site = flattenGrid(row, col);
+        if (!open[site]) return false;
+        stitch();
+        int label = boundaryLabel[find(site)];
+        return label >= 0 && boundaryFull.connected(virtualTop, label);
+    }
+
+    // Test: number of open sites
+    public int numberOfOpenSites() {
+        return openSites;
+    }
+
+    //The boundary union-find with a virtual bottom decides percolation; the one without it answers isFull, so there is no backwash.
+    public boolean percolates() {
+        stitch();
+        return boundaryGrid.connected(virtualTop, virtualBottom);
+    }
+
+    /*
+     After a parallel openAll, rebuilds both boundary union-finds from the strip edges only, in O(N * strips).
+     Every local root that touches an edge holds the boundary node of one of its edge sites as its label;
+     components only ever merge, so a label still names an edge site of the same component.
+    */
+    private void stitch() {
+        if (!stale) return;
+
+        boundaryGrid = new WeightedQuickUnionUF(virtualBottom + 1);
+        boundaryFull = new WeightedQuickUnionUF(virtualTop + 1);
+        for (int strip = 0; strip < stripCount; strip++) {
+            int firstRow = strip * stripHeight;
+            int lastRow = Math.min(firstRow + stripHeight, gridSize) - 1;
+            labelRow(firstRow);
+            if (lastRow != firstRow) labelRow(lastRow);
+        }
+        stale = false;
+    }
+
+    //Joins every open site of this strip edge with the label of its local root and links it across the edge.
+    private void labelRow(int row) {
+        for (int col = 0; col < gridSize; col++) {
+            int site = row * gridSize + col;
+            if (!open[site]) continue;
+            unionBoundary(boundaryLabel[find(site)], boundaryNode(site));
+            linkEdge(site);
+        }
+    }
+
+    private int stripOf(int site) {
+        return site / gridSize / stripHeight;
+    }
+
+    //Index of a strip edge site in the boundary union-find: 2N slots per strip, first row then last row.
+    private int boundaryNode(int site) {
+        int row = site / gridSize;
+        int strip = row / stripHeight;
+        int offset = row == strip * stripHeight ? 0 : gridSize;
+        return strip * 2 * gridSize + offset + site % gridSize;
+    }
+
+    /*
+     Local union-find inside one strip; roots are always sites of the same strip.
+     The merged root keeps a boundary label if either side had one; when both had one and track is set,
+     the two labels are joined in the boundary union-finds straight away.
+    */
+    private void union(int p, int q, boolean track) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+        int labelP = boundaryLabel[rootP];
+        int labelQ = boundaryLabel[rootQ];
+        parent[rootP] = rootQ;
+        if (labelQ < 0) boundaryLabel[rootQ] = labelP;
+        else if (labelP >= 0 && track) unionBoundary(labelP, labelQ);
+    }
+
+    private void unionBoundary(int p, int q) {
+        boundaryGrid.union(p, q);
+        boundaryFull.union(p, q);
+    }
+
+    //Finds the root of a site, halving the path on the way up.
+    private int find(int site) {
+        while (site != parent[site]) {
+            parent[site] = parent[parent[site]];
+            site = parent[site];
+        }
+        return site;
+    }
+
+    //Converts an index for a 0-based array from two grid coordinates which are 1-based.
+    private int flattenGrid(int row, int col) {
+        return gridSize * (row - 1) + col - 1;
+    }
+
+    //Throws an error if the given coordinates are not valid.
+    private void validateSite(int row, int col) {
+        if (row < 1 || col < 1 || row > gridSize || col > gridSize) {
+            throw new IndexOutOfBoundsException("Index is out of bounds");
+        }
+    }
+
+    // test client: opens a fraction p of an N * N grid at random and reports whether it percolates
+    public static void main(String[] args) {
+        int size = Integer.parseInt(args[0]);
+        int strips = args.length >= 2 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        double p = args.length >= 3 ? Double.parseDouble(args[2]) : 0.6;
+
+        StripPercolation percolation = new StripPercolation(size, strips);
+        SplittableRandom random = new SplittableRandom();
+        int[] sites = new int[size * size];
+        int count = 0;
+        for (int site = 0; site < size * size; site++) {
+            if (random.nextDouble() < p) sites[count++] = site;
+        }
+        percolation.openAll(Arrays.copyOf(sites, count));
+        StdOut.printf("%d open sites, percolates: %b %n", percolation.numberOfOpenSites(), percolation.percolates());
+    }
+}
@@ -0,0 +1,175 @@
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/*
+ Thread-safe randomized queue for a pool that many threads enqueue into and draw from.
+ Items are striped across segments, each an array with its own lock, so threads only contend when they hit the same segment.
+ enqueue appends to the calling thread's home segment. dequeue and sample pick a segment with probability proportional to its size,
+ then a uniform slot inside it, which makes every queued item equally likely even when the segments are uneven;
+ a thread whose home segment is empty simply draws from (steals) whichever segments hold items.
+ Segment sizes are read without locking, so size() is cheap but only approximate while other threads are active,
+ and the draw is exactly uniform only when no other thread changes the sizes in between.
+ Randomness comes from ThreadLocalRandom, so threads never share a generator.
+*/
+
+public class ConcurrentRandomizedQueue<Item> {
+    private final Segment<Item>[] segments;
+    private final int mask;
+
+    public ConcurrentRandomizedQueue() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    // queue striped over at least the given number of segments (rounded up to a power of two)
+    public ConcurrentRandomizedQueue(int stripes) {
+        if (stripes <= 0) throw new IllegalArgumentException("stripes must be greater than zero");
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) count <<= 1;
+        segments = (Segment<Item>[]) new Segment[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = new Segment<>();
+        }
+        mask = count - 1;
+    }
+
+    //One stripe: a resizing array like RandomizedQueue guarded by its own lock; size is volatile so it can be read without the lock.
+    private static final class Segment<Item> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private Item[] tab = (Item[]) new Object[2];
+        private volatile int size;
+
+        private void resize(int capacity) {
+            Item[] copy = (Item[]) new Object[capacity];
+            System.arraycopy(tab, 0, copy, 0, size);
+            tab = copy;
+        }
+    }
+
+    //Approximate when other threads are active.
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    //Sum of the segment sizes; approximate when other threads are active.
+    public int size() {
+        int total = 0;
+        for (Segment<Item> segment : segments) {
+            total += segment.size;
+        }
+        return total;
+    }
+
+    public void enqueue(Item item) {
+        if (item == null) throw new NullPointerException();
+        Segment<Item> segment = segments[home()];
+        segment.lock.lock();
+        try {
+            if (segment.size == segment.tab.length) segment.resize(2 * segment.tab.length);
+            segment.tab[segment.size] = item;
+            segment.size = segment.size + 1;
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    //Removes and returns a uniformly random item; throws NoSuchElementException if every segment is empty.
+    public Item dequeue() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Segment<Item> segment = pickSegment(random);
+            segment.lock.lock();
+            try {
+                int size = segment.size;
+                if (size == 0) continue; // drained by another thread since it was picked
+                int x = random.nextInt(size);
+                Item item = segment.tab[x];
+                segment.tab[x] = segment.tab[size - 1];
+                segment.tab[size - 1] = null; // to prevent loitering
+                segment.size = size - 1;
+                if (segment.tab.length > 2 && size - 1 == segment.tab.length / 4) segment.resize(segment.tab.length / 2);
+                return item;
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    //Returns a uniformly random item without removing it; throws NoSuchElementException if every segment is empty.
+    public Item sample() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            Segment<Item> segment = pickSegment(random);
+            segment.lock.lock();
+            try {
+                int size = segment.size;
+                if (size == 0) continue;
+                return segment.tab[random.nextInt(size)];
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    /*
+     Picks a segment with probability proportional to its size from one unlocked pass over the sizes.
+     If a segment shrinks during the pass the walk may run off the end; the last non-empty segment seen is used then.
+    */
+    private Segment<Item> pickSegment(ThreadLocalRandom random) {
+        while (true) {
+            int total = size();
+            if (total == 0) throw new NoSuchElementException();
+            int target = random.nextInt(total);
+            Segment<Item> fallback = null;
+            for (Segment<Item> segment : segments) {
+                int size = segment.size;
+                if (size == 0) continue;
+                if (target < size) return segment;
+                target -= size;
+                fallback = segment;
+            }
+            if (fallback != null) return fallback;
+        }
+    }
+
+    //Home segment of the calling thread, from a mixed hash of its id.
+    private int home() {
+        long id = Thread.currentThread().getId() * 0x9E3779B97F4A7C15L;
+        return (int) (id >>> 32) & mask;
+    }
+
+    // test client: producers and consumers share one queue; every item must come out exactly once
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length >= 1 ? Integer.parseInt(args[0]) : 4;
+        int perThread = args.length >= 2 ? Integer.parseInt(args[1]) : 250_000;
+        ConcurrentRandomizedQueue<Integer> queue = new ConcurrentRandomizedQueue<>();
+        AtomicIntegerArray seen = new AtomicIntegerArray(threads * perThread);
+
+        Thread[] workers = new Thread[threads];
+        for (int w = 0; w < threads; w++) {
+            int first = w * perThread;
+            workers[w] = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    queue.enqueue(first + i);
+                    if (i % 2 == 0) continue;
+                    try {
+                        seen.incrementAndGet(queue.dequeue());
+                    } catch (NoSuchElementException e) {
+                        // other threads drained the pool for a moment
+                    }
+                }
+            });
+            workers[w].start();
+        }
+        for (Thread worker : workers) worker.join();
+        System.out.println("left after the run: " + queue.size());
+        while (!queue.isEmpty()) seen.incrementAndGet(queue.dequeue());
+
+        int wrong = 0;
+        for (int i = 0; i < seen.length(); i++) {
+            if (seen.get(i) != 1) wrong++;
+        }
+        System.out.println(wrong == 0 ? "every item taken exactly once" : wrong + " items lost or duplicated");
+    }
+}
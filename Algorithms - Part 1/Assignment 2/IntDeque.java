@@ -0,0 +1,105 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ Deque of primitive ints with the same operations as Deque, so pushing ids or packed coordinates never boxes.
+ Uses the same power-of-two circular array as ResizingArrayDeque: doubles when full, halves at a quarter full.
+ iterator() returns a PrimitiveIterator.OfInt; call nextInt() on it to read values without boxing.
+*/
+
+public class IntDeque implements Iterable<Integer> {
+    private static final int MIN_CAPACITY = 8;
+
+    private int[] tab;
+    private int first;
+    private int n;
+
+    public IntDeque() {
+        tab = new int[MIN_CAPACITY];
+        first = 0;
+        n = 0;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public void addFirst(int item) {
+        if (n == tab.length) resize(2 * tab.length);
+        first = (first - 1) & (tab.length - 1);
+        tab[first] = item;
+        n++;
+    }
+
+    public void addLast(int item) {
+        if (n == tab.length) resize(2 * tab.length);
+        tab[(first + n) & (tab.length - 1)] = item;
+        n++;
+    }
+
+    public int removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        int item = tab[first];
+        first = (first + 1) & (tab.length - 1);
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    public int removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        int item = tab[(first + n - 1) & (tab.length - 1)];
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (tab.length > MIN_CAPACITY && n == tab.length / 4) resize(tab.length / 2);
+    }
+
+    //Copies the items into a new array of the given capacity, unwrapping them so the front lands at index 0.
+    private void resize(int capacity) {
+        int[] copy = new int[capacity];
+        int head = Math.min(n, tab.length - first);
+        System.arraycopy(tab, first, copy, 0, head);
+        System.arraycopy(tab, 0, copy, head, n - head);
+        tab = copy;
+        first = 0;
+    }
+
+    public PrimitiveIterator.OfInt iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfInt {
+        private int i = 0;
+        public boolean hasNext() {return i < n;}
+        public void remove() {throw new UnsupportedOperationException();}
+        public int nextInt() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return tab[(first + i++) & (tab.length - 1)];
+        }
+    }
+
+    public static void main(String[] args) {
+        IntDeque deque = new IntDeque();
+        for (int i = 0; i < 20; i++) {
+            if (i % 2 == 0) deque.addFirst(i);
+            else deque.addLast(i);
+        }
+        PrimitiveIterator.OfInt it = deque.iterator();
+        while (it.hasNext()) {
+            System.out.print(it.nextInt() + " ");
+        }
+        System.out.println();
+        while (deque.size() > 1) {
+            System.out.print(deque.removeFirst() + " " + deque.removeLast() + " ");
+        }
+        System.out.println(deque.isEmpty());
+    }
+}
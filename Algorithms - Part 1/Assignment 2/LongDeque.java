@@ -0,0 +1,105 @@
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/*
+ Deque of primitive longs with the same operations as Deque, so pushing ids or packed coordinates never boxes.
+ Uses the same power-of-two circular array as ResizingArrayDeque: doubles when full, halves at a quarter full.
+ iterator() returns a PrimitiveIterator.OfLong; call nextLong() on it to read values without boxing.
+*/
+
+public class LongDeque implements Iterable<Long> {
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] tab;
+    private int first;
+    private int n;
+
+    public LongDeque() {
+        tab = new long[MIN_CAPACITY];
+        first = 0;
+        n = 0;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public void addFirst(long item) {
+        if (n == tab.length) resize(2 * tab.length);
+        first = (first - 1) & (tab.length - 1);
+        tab[first] = item;
+        n++;
+    }
+
+    public void addLast(long item) {
+        if (n == tab.length) resize(2 * tab.length);
+        tab[(first + n) & (tab.length - 1)] = item;
+        n++;
+    }
+
+    public long removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        long item = tab[first];
+        first = (first + 1) & (tab.length - 1);
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    public long removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        long item = tab[(first + n - 1) & (tab.length - 1)];
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (tab.length > MIN_CAPACITY && n == tab.length / 4) resize(tab.length / 2);
+    }
+
+    //Copies the items into a new array of the given capacity, unwrapping them so the front lands at index 0.
+    private void resize(int capacity) {
+        long[] copy = new long[capacity];
+        int head = Math.min(n, tab.length - first);
+        System.arraycopy(tab, first, copy, 0, head);
+        System.arraycopy(tab, 0, copy, head, n - head);
+        tab = copy;
+        first = 0;
+    }
+
+    public PrimitiveIterator.OfLong iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements PrimitiveIterator.OfLong {
+        private int i = 0;
+        public boolean hasNext() {return i < n;}
+        public void remove() {throw new UnsupportedOperationException();}
+        public long nextLong() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return tab[(first + i++) & (tab.length - 1)];
+        }
+    }
+
+    public static void main(String[] args) {
+        LongDeque deque = new LongDeque();
+        for (int i = 0; i < 20; i++) {
+            if (i % 2 == 0) deque.addFirst(i);
+            else deque.addLast(i);
+        }
+        PrimitiveIterator.OfLong it = deque.iterator();
+        while (it.hasNext()) {
+            System.out.print(it.nextLong() + " ");
+        }
+        System.out.println();
+        while (deque.size() > 1) {
+            System.out.print(deque.removeFirst() + " " + deque.removeLast() + " ");
+        }
+        System.out.println(deque.isEmpty());
+    }
+}
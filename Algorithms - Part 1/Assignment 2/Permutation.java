@@ -1,8 +1,32 @@
 import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdRandom;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/*
+ Prints k tokens of standard input chosen uniformly at random, each at most once.
+ By default every token goes through a RandomizedQueue.
+ With "stream" as the second argument it keeps only k tokens, using reservoir sampling (Algorithm L):
+ after the reservoir is full it draws how many tokens to skip before the next replacement, so it needs O(k) memory
+ and O(k log(n / k)) random draws, and skipped tokens are stepped over as raw bytes without ever becoming Strings.
+*/
 
 public class Permutation {
     public static void main(String[] args) {
         int k = Integer.parseInt(args[0]);
+        if (args.length >= 2 && args[1].equals("stream")) {
+            String[] sample = reservoirSample(new ByteTokenizer(System.in), k);
+            StringBuilder out = new StringBuilder();
+            for (String token : sample) {
+                out.append(token).append(System.lineSeparator());
+            }
+            System.out.print(out);
+            return;
+        }
         RandomizedQueue<String> randomizedQueue = new RandomizedQueue<>();
         while (!StdIn.isEmpty()) {
             randomizedQueue.enqueue(StdIn.readString());
@@ -11,4 +35,105 @@ public class Permutation {
             System.out.println(randomizedQueue.dequeue());
         }
     }
+
+    /*
+     Algorithm L (Li, 1994): fills the reservoir with the first k tokens, then repeatedly skips a geometrically distributed
+     number of tokens and replaces a random reservoir slot with the next one. The result is shuffled before it is returned
+     because the reservoir itself keeps the first tokens in input order. Fewer than k tokens in the input is an error, as in the queue mode.
+    */
+    private static String[] reservoirSample(ByteTokenizer tokens, int k) {
+        if (k < 0) throw new IllegalArgumentException("k must not be negative");
+        String[] reservoir = new String[k];
+        if (k == 0) return reservoir;
+        for (int i = 0; i < k; i++) {
+            String token = tokens.next();
+            if (token == null) throw new NoSuchElementException("fewer than k tokens in the input");
+            reservoir[i] = token;
+        }
+
+        double w = Math.exp(Math.log(openUniform()) / k);
+        while (true) {
+            long skip = (long) Math.floor(Math.log(openUniform()) / Math.log1p(-w));
+            if (!tokens.skip(skip)) break;
+            String token = tokens.next();
+            if (token == null) break;
+            reservoir[StdRandom.uniform(k)] = token;
+            w *= Math.exp(Math.log(openUniform()) / k);
+        }
+        StdRandom.shuffle(reservoir);
+        return reservoir;
+    }
+
+    //Uniform in (0, 1], so its logarithm is always finite.
+    private static double openUniform() {
+        return 1.0 - StdRandom.uniform();
+    }
+
+    //Splits an input stream into whitespace-separated tokens straight from a byte buffer; UTF-8 continuation bytes are never whitespace.
+    private static class ByteTokenizer {
+        private final InputStream in;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private int limit;
+        private byte[] token = new byte[64];
+
+        ByteTokenizer(InputStream in) {
+            this.in = in;
+        }
+
+        //Next token, or null at the end of the input.
+        String next() {
+            if (!skipWhitespace()) return null;
+            int length = 0;
+            while (true) {
+                if (position == limit && !fill()) break;
+                byte b = buffer[position];
+                if (isWhitespace(b)) break;
+                if (length == token.length) token = Arrays.copyOf(token, 2 * length);
+                token[length++] = b;
+                position++;
+            }
+            return new String(token, 0, length, StandardCharsets.UTF_8);
+        }
+
+        //Steps over count tokens without decoding them; false if the input ends first.
+        boolean skip(long count) {
+            for (long i = 0; i < count; i++) {
+                if (!skipWhitespace()) return false;
+                while (true) {
+                    if (position == limit && !fill()) return i + 1 == count;
+                    if (isWhitespace(buffer[position])) break;
+                    position++;
+                }
+            }
+            return true;
+        }
+
+        //Moves to the start of the next token; false at the end of the input.
+        private boolean skipWhitespace() {
+            while (true) {
+                if (position == limit && !fill()) return false;
+                if (!isWhitespace(buffer[position])) return true;
+                position++;
+            }
+        }
+
+        private boolean fill() {
+            try {
+                limit = in.read(buffer, 0, buffer.length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            position = 0;
+            if (limit < 0) {
+                limit = 0;
+                return false;
+            }
+            return true;
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0x0B;
+        }
+    }
 }
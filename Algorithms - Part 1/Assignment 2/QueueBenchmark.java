@@ -0,0 +1,341 @@
+import edu.princeton.cs.algs4.StdOut;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/*
+ Micro-benchmarks for the deque and randomized queue implementations, timed with the harness at the top of the class.
+
+ Deques are compared with java.util.ArrayDeque, randomized queues with an ArrayList that is shuffled or drawn from by swap-remove.
+ Covers push/pop at both ends, iteration, mixed enqueue/dequeue, the grow/shrink pattern around the quarter-full threshold
+ and the cost of creating an iterator and reading its first item. Randomized workloads use a fixed seed.
+*/
+
+public class QueueBenchmark {
+    /*
+     Harness, run the same way JMH runs a benchmark: warmup iterations that are thrown away, then timed iterations of a fixed length,
+     reported as average time per operation with a 95% confidence error and the bytes allocated per operation
+     (from the per-thread allocation counter, like JMH's gc profiler). Results go into a sink that is printed at the end
+     so the JIT cannot drop the work. This harness is the same code in PercolationBenchmark (Assignment 1) and QueueBenchmark
+     (Assignment 2), duplicated on purpose because each assignment folder compiles on its own.
+    */
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASURE_ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+
+    private static long sink;
+
+    //One benchmark operation; returns how many logical operations it did and feeds its result to the sink.
+    private interface Workload {
+        long run();
+    }
+
+    //Runs warmup and measured iterations of a workload and prints one result line in the given unit (ns/op, us/op or ms/op).
+    private static void measure(String name, String unit, Workload workload) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        boolean allocation = threads instanceof com.sun.management.ThreadMXBean
+                             && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported();
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            iteration(workload);
+        }
+        double[] nanosPerOp = new double[MEASURE_ITERATIONS];
+        long allocated = 0;
+        long operations = 0;
+        for (int i = 0; i < MEASURE_ITERATIONS; i++) {
+            long before = allocation ? allocatedBytes(threads) : 0L;
+            long[] result = iteration(workload);
+            if (allocation) allocated += allocatedBytes(threads) - before;
+            operations += result[1];
+            nanosPerOp[i] = (double) result[0] / result[1];
+        }
+        double mean = 0;
+        for (double x : nanosPerOp) mean += x / MEASURE_ITERATIONS;
+        double squares = 0;
+        for (double x : nanosPerOp) squares += (x - mean) * (x - mean);
+        double error = 1.96 * Math.sqrt(squares / (MEASURE_ITERATIONS - 1) / MEASURE_ITERATIONS);
+        double bytesPerOp = allocation ? (double) allocated / operations : Double.NaN;
+        StdOut.printf("%-48s avgt %3d %14.3f +- %12.3f %-6s %14.1f B/op%n", name, MEASURE_ITERATIONS,
+                      mean / unitNanos(unit), error / unitNanos(unit), unit, bytesPerOp);
+    }
+
+    //Repeats the workload until the iteration time is used up; returns elapsed nanos and operations done.
+    private static long[] iteration(Workload workload) {
+        long start = System.nanoTime();
+        long elapsed;
+        long operations = 0;
+        do {
+            operations += workload.run();
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < ITERATION_NANOS);
+        return new long[] { elapsed, operations };
+    }
+
+    private static long allocatedBytes(ThreadMXBean threads) {
+        return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static double unitNanos(String unit) {
+        switch (unit) {
+            case "us/op": return 1e3;
+            case "ms/op": return 1e6;
+            default: return 1;
+        }
+    }
+
+    private static void printHeader() {
+        StdOut.printf("%-48s mode %3s %14s    %12s %-6s %14s%n", "Benchmark", "Cnt", "Score", "Error", "Units", "Alloc");
+    }
+
+    private static final int ITEMS = 1 << 16;
+    private static final long SEED = 42L;
+
+    private static void dequeBenchmarks() {
+        Integer[] items = new Integer[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = i;
+        }
+
+        measure("Deque addLast/removeFirst", "ns/op", () -> {
+            Deque<Integer> deque = new Deque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("ResizingArrayDeque addLast/removeFirst", "ns/op", () -> {
+            ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("java.util.ArrayDeque addLast/removeFirst", "ns/op", () -> {
+            ArrayDeque<Integer> deque = new ArrayDeque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("IntDeque addLast/removeFirst", "ns/op", () -> {
+            IntDeque deque = new IntDeque();
+            for (int i = 0; i < ITEMS; i++) deque.addLast(i);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("Deque addFirst/removeFirst", "ns/op", () -> {
+            Deque<Integer> deque = new Deque<>();
+            for (Integer item : items) deque.addFirst(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("ResizingArrayDeque addFirst/removeFirst", "ns/op", () -> {
+            ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<>();
+            for (Integer item : items) deque.addFirst(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("java.util.ArrayDeque addFirst/removeFirst", "ns/op", () -> {
+            ArrayDeque<Integer> deque = new ArrayDeque<>();
+            for (Integer item : items) deque.addFirst(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeFirst();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("Deque addLast/removeLast", "ns/op", () -> {
+            Deque<Integer> deque = new Deque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeLast();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("ResizingArrayDeque addLast/removeLast", "ns/op", () -> {
+            ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeLast();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("java.util.ArrayDeque addLast/removeLast", "ns/op", () -> {
+            ArrayDeque<Integer> deque = new ArrayDeque<>();
+            for (Integer item : items) deque.addLast(item);
+            long sum = 0;
+            while (!deque.isEmpty()) sum += deque.removeLast();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+
+        Deque<Integer> linked = new Deque<>();
+        ResizingArrayDeque<Integer> array = new ResizingArrayDeque<>();
+        ArrayDeque<Integer> baseline = new ArrayDeque<>();
+        for (Integer item : items) {
+            linked.addLast(item);
+            array.addLast(item);
+            baseline.addLast(item);
+        }
+        measure("Deque iterate", "ns/op", () -> {
+            long sum = 0;
+            for (Integer item : linked) sum += item;
+            sink += sum;
+            return ITEMS;
+        });
+        measure("ResizingArrayDeque iterate", "ns/op", () -> {
+            long sum = 0;
+            for (Integer item : array) sum += item;
+            sink += sum;
+            return ITEMS;
+        });
+        measure("java.util.ArrayDeque iterate", "ns/op", () -> {
+            long sum = 0;
+            for (Integer item : baseline) sum += item;
+            sink += sum;
+            return ITEMS;
+        });
+    }
+
+    private static void randomizedQueueBenchmarks() {
+        Integer[] items = new Integer[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            items[i] = i;
+        }
+
+        // Fill then drain: RandomizedQueue against an ArrayList that is shuffled once and emptied from the end
+        measure("RandomizedQueue enqueue/dequeue all", "ns/op", () -> {
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+            for (Integer item : items) queue.enqueue(item);
+            long sum = 0;
+            while (!queue.isEmpty()) sum += queue.dequeue();
+            sink += sum;
+            return 2 * ITEMS;
+        });
+        measure("RandomizedQueue enqueueAll/dequeueMany", "ns/op", () -> {
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+            queue.enqueueAll(items);
+            long[] sum = new long[1];
+            queue.dequeueMany(ITEMS, item -> sum[0] += item);
+            sink += sum[0];
+            return 2 * ITEMS;
+        });
+        measure("ArrayList add all/shuffle/remove all", "ns/op", () -> {
+            ArrayList<Integer> list = new ArrayList<>();
+            for (Integer item : items) list.add(item);
+            Collections.shuffle(list, new Random(SEED));
+            long sum = 0;
+            while (!list.isEmpty()) sum += list.remove(list.size() - 1);
+            sink += sum;
+            return 2 * ITEMS;
+        });
+
+        // Mixed: two enqueues then one random dequeue, repeated; the list draws by swapping a random slot with the last
+        measure("RandomizedQueue mixed 2 enqueue : 1 dequeue", "ns/op", () -> {
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+            long sum = 0;
+            for (int i = 0; i < ITEMS; i += 2) {
+                queue.enqueue(items[i]);
+                queue.enqueue(items[i + 1]);
+                sum += queue.dequeue();
+            }
+            sink += sum + queue.size();
+            return ITEMS + ITEMS / 2;
+        });
+        measure("ArrayList mixed 2 add : 1 swap-remove", "ns/op", () -> {
+            ArrayList<Integer> list = new ArrayList<>();
+            SplittableRandom random = new SplittableRandom(SEED);
+            long sum = 0;
+            for (int i = 0; i < ITEMS; i += 2) {
+                list.add(items[i]);
+                list.add(items[i + 1]);
+                int x = random.nextInt(list.size());
+                Integer last = list.remove(list.size() - 1);
+                sum += x == list.size() ? last : list.set(x, last);
+            }
+            sink += sum + list.size();
+            return ITEMS + ITEMS / 2;
+        });
+
+        // Thrash: fill to just past a power of two so the array doubles, then drain to empty so it halves all the way down
+        int sawtooth = (1 << 12) + 1;
+        measure("RandomizedQueue grow/shrink sawtooth", "ns/op", () -> {
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+            long sum = 0;
+            for (int round = 0; round < 16; round++) {
+                for (int i = 0; i < sawtooth; i++) queue.enqueue(items[i]);
+                while (!queue.isEmpty()) sum += queue.dequeue();
+            }
+            sink += sum;
+            return 16L * 2 * sawtooth;
+        });
+        // Hover: stay around a quarter full, where dequeue halves the array, to show the doubling/halving gap prevents thrash
+        measure("RandomizedQueue hover at quarter full", "ns/op", () -> {
+            RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+            for (int i = 0; i < 1025; i++) queue.enqueue(items[i]);      // capacity 2048
+            while (queue.size() > 513) queue.dequeue();                  // one above a quarter of 2048
+            long sum = 0;
+            for (int i = 0; i < ITEMS / 2; i++) {
+                sum += queue.dequeue();
+                queue.enqueue(items[i]);
+            }
+            sink += sum;
+            return ITEMS;
+        });
+        measure("java.util.ArrayDeque hover at quarter full", "ns/op", () -> {
+            ArrayDeque<Integer> deque = new ArrayDeque<>();
+            for (int i = 0; i < 513; i++) deque.addLast(items[i]);
+            long sum = 0;
+            for (int i = 0; i < ITEMS / 2; i++) {
+                sum += deque.removeFirst();
+                deque.addLast(items[i]);
+            }
+            sink += sum;
+            return ITEMS;
+        });
+
+        // Iterator creation: build an iterator over ITEMS items and read only its first item
+        RandomizedQueue<Integer> queue = new RandomizedQueue<>(new SplittableRandom(SEED));
+        queue.enqueueAll(items);
+        ArrayList<Integer> list = new ArrayList<>(ITEMS);
+        Collections.addAll(list, items);
+        Deque<Integer> linked = new Deque<>();
+        for (Integer item : items) linked.addLast(item);
+        Random shuffler = new Random(SEED);
+        measure("RandomizedQueue iterator + first item", "ns/op", () -> {
+            Iterator<Integer> it = queue.iterator();
+            sink += it.next();
+            return 1;
+        });
+        measure("ArrayList copy/shuffle + first item", "ns/op", () -> {
+            ArrayList<Integer> copy = new ArrayList<>(list);
+            Collections.shuffle(copy, shuffler);
+            sink += copy.get(0);
+            return 1;
+        });
+        measure("Deque iterator + first item", "ns/op", () -> {
+            Iterator<Integer> it = linked.iterator();
+            sink += it.next();
+            return 1;
+        });
+    }
+
+    public static void main(String[] args) {
+        printHeader();
+        dequeBenchmarks();
+        randomizedQueueBenchmarks();
+        StdOut.println("sink: " + sink);
+    }
+}
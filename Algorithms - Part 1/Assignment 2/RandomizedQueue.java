@@ -1,13 +1,29 @@
-import edu.princeton.cs.algs4.StdRandom;
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.function.Consumer;
+import java.util.random.RandomGenerator;
 
+/*
+ Every queue draws from its own RandomGenerator instead of the global StdRandom, so instances never contend on a shared
+ generator and a run can be reproduced by passing a seeded generator. The default is a fresh SplittableRandom.
+*/
 
 public class RandomizedQueue<Item> implements Iterable<Item> {
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8; // largest array size most VMs allow
     private Item[] tab;
     private int n;
+    private final RandomGenerator random;
 
     public RandomizedQueue() {
+        this(new SplittableRandom());
+    }
+
+    // queue drawing from the given generator, e.g. new SplittableRandom(seed) for a reproducible run
+    public RandomizedQueue(RandomGenerator random) {
+        if (random == null) throw new NullPointerException();
+        this.random = random;
         tab = (Item[]) new Object[2];
         n = 0;
     }
@@ -27,55 +43,163 @@ public class RandomizedQueue<Item> implements Iterable<Item> {
             tab[n++] = item;
             return;
         }
-        int x = StdRandom.uniform(n);
+        int x = random.nextInt(n);
         Item aux = tab[x];
         tab[x] = item;
         tab[n++] = aux;
     }
 
+    /*
+     Enqueues every item of the array. The backing array is grown once to the capacity the same doubling would reach,
+     then each new item is swapped with a random earlier slot in a single pass, as enqueue would have done one at a time.
+     Throws NullPointerException before anything is added if any item is null.
+    */
+    public void enqueueAll(Item[] items) {
+        for (Item item : items) if (item == null) throw new NullPointerException();
+        ensureCapacity((long) n + items.length);
+        for (Item item : items) {
+            append(item);
+        }
+    }
+
+    //Same as enqueueAll(Item[]) for a collection.
+    public void enqueueAll(Collection<? extends Item> items) {
+        for (Item item : items) if (item == null) throw new NullPointerException();
+        ensureCapacity((long) n + items.size());
+        for (Item item : items) {
+            append(item);
+        }
+    }
+
+    //Inside-out Fisher-Yates step: the new item takes a random slot in [0, n] and the item there moves to the end.
+    private void append(Item item) {
+        int x = random.nextInt(n + 1);
+        tab[n] = tab[x];
+        tab[x] = item;
+        n++;
+    }
+
+    /*
+     Doubles the capacity until it holds the given number of items, then resizes once.
+     The count is a long so it cannot wrap around; more items than one array can hold is an IllegalArgumentException,
+     and the doubling stops at MAX_CAPACITY instead of overflowing.
+    */
+    private void ensureCapacity(long needed) {
+        if (needed > MAX_CAPACITY) throw new IllegalArgumentException("a RandomizedQueue holds at most " + MAX_CAPACITY + " items");
+        long capacity = tab.length;
+        while (capacity < needed) capacity *= 2;
+        capacity = Math.min(capacity, MAX_CAPACITY);
+        if (capacity != tab.length) resize((int) capacity);
+    }
+
     private void resize(int capacity) {
         Item[] copy = (Item[]) new Object[capacity];
-        for (int i = 0; i < n; i++) {
-            copy[i] = tab[i];
-        }
+        System.arraycopy(tab, 0, copy, 0, n);
         tab = copy;
     }
 
     public Item dequeue() {
         if (isEmpty()) throw new NoSuchElementException();
         if (n == tab.length / 4) resize(tab.length / 2);
-        int x = StdRandom.uniform(n);
+        int x = random.nextInt(n);
         Item item = tab[x];
         tab[x] = tab[--n];
         tab[n] = null; // to prevent loitering
         return item;
     }
 
+    /*
+     Removes k random items and hands each one to the sink, in one tight loop.
+     Throws NoSuchElementException before removing anything if fewer than k items are queued.
+     The array is shrunk once at the end, to the capacity the per-item halving at a quarter full would have left.
+    */
+    public void dequeueMany(int k, Consumer<? super Item> sink) {
+        if (k < 0) throw new IllegalArgumentException("k must not be negative");
+        if (k > n) throw new NoSuchElementException();
+        for (int i = 0; i < k; i++) {
+            int x = random.nextInt(n);
+            Item item = tab[x];
+            tab[x] = tab[--n];
+            tab[n] = null; // to prevent loitering
+            sink.accept(item);
+        }
+        int capacity = tab.length;
+        while (capacity > 2 && n <= capacity / 4) capacity /= 2;
+        if (capacity != tab.length) resize(capacity);
+    }
+
     public Item sample() {
         if (isEmpty()) throw new NoSuchElementException();
-        return tab[StdRandom.uniform(n)];
+        return tab[random.nextInt(n)];
     }
 
     public Iterator<Item> iterator() {
         return new ArrayIterator();
     }
 
+    /*
+     Lazy shuffle: an incremental Fisher-Yates over the virtual permutation 0 .. n - 1.
+     Step i swaps position i with a random position in [i, n) and returns what lands at i.
+     Only positions that have been swapped away from their own index are stored, in a small primitive hash map,
+     so creating the iterator is O(1) and reading k items costs O(k) time and memory.
+    */
     private class ArrayIterator implements Iterator<Item> {
-        private int i;
-        private int[] x;
-        public ArrayIterator() {
-            i = 0;
-            x = new int[n];
-            for (int j = 0; j < n; j++) {
-                x[j] = j;
-            }
-            StdRandom.shuffle(x);
-        }
-        public boolean hasNext() {return i < n;}
+        private final int count = n;
+        private int i = 0;
+        private final SwapMap swapped = new SwapMap();
+        public boolean hasNext() {return i < count;}
         public void remove() {throw new UnsupportedOperationException();}
         public Item next() {
             if (!hasNext()) throw new NoSuchElementException();
-            return tab[x[i++]];
+            int j = i + random.nextInt(count - i);
+            int picked = swapped.get(j);
+            swapped.put(j, swapped.get(i));
+            i++;
+            return tab[picked];
+        }
+    }
+
+    //Open-addressing int to int map where a missing key maps to itself; keys are stored plus one so 0 marks an empty slot.
+    private static class SwapMap {
+        private int[] keys = new int[16];
+        private int[] values = new int[16];
+        private int size;
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = hash(key) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+                if (keys[slot] == key + 1) return values[slot];
+            }
+            return key;
+        }
+
+        void put(int key, int value) {
+            if (2 * (size + 1) > keys.length) grow();
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != 0 && keys[slot] != key + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == 0) size++;
+            keys[slot] = key + 1;
+            values[slot] = value;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[2 * oldKeys.length];
+            values = new int[2 * oldValues.length];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) put(oldKeys[slot] - 1, oldValues[slot]);
+            }
+        }
+
+        //Fibonacci hashing, folded so the high bits reach the masked low bits.
+        private static int hash(int key) {
+            int h = key * 0x9E3779B9;
+            return h ^ (h >>> 16);
         }
     }
     
@@ -0,0 +1,111 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/*
+ Same API as Deque, backed by a circular array instead of a linked list, so there is no Node allocation per element.
+ first is the index of the front item and the items occupy n consecutive slots modulo the capacity.
+ The capacity is always a power of two, so wrapping an index is a mask instead of a modulo.
+ The array doubles when full and halves when it drops to a quarter full, which keeps every operation amortized constant time.
+ The iterator walks the array in order, which is cache friendly compared to following next pointers.
+*/
+
+public class ResizingArrayDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 8;
+
+    private Item[] tab;
+    private int first;
+    private int n;
+
+    public ResizingArrayDeque() {
+        tab = (Item[]) new Object[MIN_CAPACITY];
+        first = 0;
+        n = 0;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    public void addFirst(Item item) {
+        if (item == null) throw new NullPointerException("input must be not null");
+        if (n == tab.length) resize(2 * tab.length);
+        first = (first - 1) & (tab.length - 1);
+        tab[first] = item;
+        n++;
+    }
+
+    public void addLast(Item item) {
+        if (item == null) throw new NullPointerException("input must be not null");
+        if (n == tab.length) resize(2 * tab.length);
+        tab[(first + n) & (tab.length - 1)] = item;
+        n++;
+    }
+
+    public Item removeFirst() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        Item item = tab[first];
+        tab[first] = null; // to prevent loitering
+        first = (first + 1) & (tab.length - 1);
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    public Item removeLast() {
+        if (isEmpty()) throw new NoSuchElementException("Deque underflow");
+        int last = (first + n - 1) & (tab.length - 1);
+        Item item = tab[last];
+        tab[last] = null; // to prevent loitering
+        n--;
+        shrinkIfSparse();
+        return item;
+    }
+
+    private void shrinkIfSparse() {
+        if (tab.length > MIN_CAPACITY && n == tab.length / 4) resize(tab.length / 2);
+    }
+
+    //Copies the items into a new array of the given capacity, unwrapping them so the front lands at index 0.
+    private void resize(int capacity) {
+        Item[] copy = (Item[]) new Object[capacity];
+        int head = Math.min(n, tab.length - first);
+        System.arraycopy(tab, first, copy, 0, head);
+        System.arraycopy(tab, 0, copy, head, n - head);
+        tab = copy;
+        first = 0;
+    }
+
+    public Iterator<Item> iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements Iterator<Item> {
+        private int i = 0;
+        public boolean hasNext() {return i < n;}
+        public void remove() {throw new UnsupportedOperationException();}
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return tab[(first + i++) & (tab.length - 1)];
+        }
+    }
+
+    public static void main(String[] args) {
+        ResizingArrayDeque<Integer> deque = new ResizingArrayDeque<>();
+        for (int i = 0; i < 20; i++) {
+            if (i % 2 == 0) deque.addFirst(i);
+            else deque.addLast(i);
+        }
+        for (Integer i : deque) {
+            System.out.print(i + " ");
+        }
+        System.out.println();
+        while (deque.size() > 1) {
+            System.out.print(deque.removeFirst() + " " + deque.removeLast() + " ");
+        }
+        System.out.println(deque.isEmpty());
+    }
+}
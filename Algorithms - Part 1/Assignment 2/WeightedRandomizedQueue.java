@@ -0,0 +1,173 @@
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/*
+ Randomized queue where sample() and dequeue() pick an item with probability proportional to its weight.
+ Items sit in an array like RandomizedQueue, and their weights are kept in a Fenwick (binary indexed) tree over the same slots,
+ so a draw is a descent through the tree for a uniform point in [0, total weight): O(log n) for enqueue, sample, dequeue and setWeight.
+ dequeue moves the last item into the freed slot, which costs two tree updates.
+ Items must be distinct, because setWeight finds an item's slot through a hash map.
+*/
+
+public class WeightedRandomizedQueue<Item> {
+    private Item[] items;
+    private double[] weights;
+    private double[] tree;      // Fenwick tree over weights, 1-based
+    private HashMap<Item, Integer> slots;
+    private int n;
+    private final RandomGenerator random;
+
+    public WeightedRandomizedQueue() {
+        this(new SplittableRandom());
+    }
+
+    // queue drawing from the given generator, e.g. new SplittableRandom(seed) for a reproducible run
+    public WeightedRandomizedQueue(RandomGenerator random) {
+        if (random == null) throw new NullPointerException();
+        this.random = random;
+        items = (Item[]) new Object[2];
+        weights = new double[2];
+        tree = new double[3];
+        slots = new HashMap<>();
+        n = 0;
+    }
+
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    public int size() {
+        return n;
+    }
+
+    //Adds an item that is not queued yet with a positive, finite weight.
+    public void enqueue(Item item, double weight) {
+        if (item == null) throw new NullPointerException();
+        validateWeight(weight);
+        if (slots.containsKey(item)) throw new IllegalArgumentException("item is already queued");
+        if (n == items.length) resize(2 * items.length);
+        items[n] = item;
+        weights[n] = weight;
+        add(n, weight);
+        slots.put(item, n);
+        n++;
+    }
+
+    //Changes the weight of a queued item.
+    public void setWeight(Item item, double weight) {
+        validateWeight(weight);
+        Integer slot = slots.get(item);
+        if (slot == null) throw new NoSuchElementException("item is not queued");
+        add(slot, weight - weights[slot]);
+        weights[slot] = weight;
+    }
+
+    //Current weight of a queued item.
+    public double weight(Item item) {
+        Integer slot = slots.get(item);
+        if (slot == null) throw new NoSuchElementException("item is not queued");
+        return weights[slot];
+    }
+
+    //Sum of the weights of all queued items.
+    public double totalWeight() {
+        return prefixSum(n);
+    }
+
+    //Returns a random item, chosen with probability proportional to its weight, without removing it.
+    public Item sample() {
+        if (isEmpty()) throw new NoSuchElementException();
+        return items[pick()];
+    }
+
+    //Removes and returns a random item, chosen with probability proportional to its weight.
+    public Item dequeue() {
+        if (isEmpty()) throw new NoSuchElementException();
+        int slot = pick();
+        Item item = items[slot];
+        int last = n - 1;
+        if (slot != last) {
+            add(slot, weights[last] - weights[slot]);
+            items[slot] = items[last];
+            weights[slot] = weights[last];
+            slots.put(items[slot], slot);
+        }
+        add(last, -weights[last]);
+        items[last] = null; // to prevent loitering
+        weights[last] = 0;
+        slots.remove(item);
+        n--;
+        if (n > 0 && n == items.length / 4) resize(items.length / 2);
+        return item;
+    }
+
+    /*
+     Finds the slot whose weight interval contains a uniform point in [0, total) by walking down the Fenwick tree.
+     Rounding in the tree can push the point past the last item or onto an empty slot, so the result is clamped to the last item.
+    */
+    private int pick() {
+        double target = random.nextDouble() * totalWeight();
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= target) {
+                position = next;
+                target -= tree[next];
+            }
+        }
+        return Math.min(position, n - 1);
+    }
+
+    //Adds delta to the weight of a 0-based slot in the Fenwick tree.
+    private void add(int slot, double delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    //Sum of the weights of slots 0 .. count - 1.
+    private double prefixSum(int count) {
+        double sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    //Moves the items and weights to arrays of a new capacity and rebuilds the tree from scratch in O(n), which also clears rounding drift.
+    private void resize(int capacity) {
+        Item[] itemCopy = (Item[]) new Object[capacity];
+        double[] weightCopy = new double[capacity];
+        System.arraycopy(items, 0, itemCopy, 0, n);
+        System.arraycopy(weights, 0, weightCopy, 0, n);
+        items = itemCopy;
+        weights = weightCopy;
+        tree = new double[capacity + 1];
+        for (int i = 1; i <= capacity; i++) {
+            tree[i] += weights[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= capacity) tree[parent] += tree[i];
+        }
+    }
+
+    private static void validateWeight(double weight) {
+        if (!(weight > 0) || Double.isInfinite(weight)) throw new IllegalArgumentException("weight must be positive and finite");
+    }
+
+    public static void main(String[] args) {
+        WeightedRandomizedQueue<String> queue = new WeightedRandomizedQueue<>(new SplittableRandom(1));
+        queue.enqueue("light", 1);
+        queue.enqueue("medium", 2);
+        queue.enqueue("heavy", 7);
+        int heavy = 0;
+        for (int i = 0; i < 100000; i++) {
+            if (queue.sample().equals("heavy")) heavy++;
+        }
+        System.out.println("heavy sampled " + heavy + " times out of 100000, expected about 70000");
+        queue.setWeight("heavy", 0.5);
+        System.out.println("total weight: " + queue.totalWeight());
+        while (!queue.isEmpty()) System.out.println(queue.dequeue());
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/*
+ Lock-free work-stealing deque in the style of Chase and Lev, for use as a per-worker task deque.
+ One owner thread pushes and pops at the bottom without any CAS in the common case; any number of thief threads steal from the top with a CAS on top.
+ Only the owner may call push and pop; steal, size, isEmpty and iterator are safe from any thread.
+ Items live in a power-of-two circular array indexed by the ever-increasing top and bottom counters.
+ When the owner finds it full it copies the live range into an array twice as big and publishes it; old arrays are never written again,
+ so a thief still reading one sees either the right item or loses its CAS.
+ pop and steal return null instead of throwing when there is nothing to take, since emptiness can change under a concurrent caller;
+ steal also returns null when it loses a race with another thief or the owner, and the caller just tries again later.
+*/
+
+public class WorkStealingDeque<Item> implements Iterable<Item> {
+    private static final int MIN_CAPACITY = 32;
+
+    private final AtomicLong top = new AtomicLong();
+    private volatile long bottom;
+    private volatile AtomicReferenceArray<Item> tab = new AtomicReferenceArray<>(MIN_CAPACITY);
+
+    //Approximate when other threads are active, exact when only the owner is.
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    //Approximate when other threads are active, exact when only the owner is.
+    public int size() {
+        long size = bottom - top.get();
+        return size < 0 ? 0 : (int) size;
+    }
+
+    //Owner only: pushes an item at the bottom.
+    public void push(Item item) {
+        if (item == null) throw new NullPointerException("input must be not null");
+        long b = bottom;
+        long t = top.get();
+        AtomicReferenceArray<Item> a = tab;
+        if (b - t >= a.length() - 1) {
+            a = grow(a, t, b);
+        }
+        a.set((int) b & (a.length() - 1), item);
+        bottom = b + 1;
+    }
+
+    /*
+     Owner only: pops the most recently pushed item, or returns null if the deque is empty.
+     Bottom is lowered before top is read (both volatile, so the two cannot be reordered); if exactly one item is left
+     the owner races the thieves for it with the same CAS on top that they use.
+    */
+    public Item pop() {
+        long b = bottom - 1;
+        AtomicReferenceArray<Item> a = tab;
+        bottom = b;
+        long t = top.get();
+        if (t > b) {
+            bottom = b + 1;
+            return null;
+        }
+        int slot = (int) b & (a.length() - 1);
+        Item item = a.get(slot);
+        if (t == b) {
+            if (!top.compareAndSet(t, t + 1)) item = null;
+            bottom = b + 1;
+            return item;
+        }
+        a.set(slot, null); // to prevent loitering; no thief can reach this slot while t < b
+        return item;
+    }
+
+    //Any thread: takes the oldest item from the top, or returns null if the deque is empty or another thread won the race.
+    public Item steal() {
+        long t = top.get();
+        long b = bottom;
+        if (t >= b) return null;
+        AtomicReferenceArray<Item> a = tab;
+        Item item = a.get((int) t & (a.length() - 1));
+        if (!top.compareAndSet(t, t + 1)) return null;
+        return item;
+    }
+
+    //Owner only: copies the live range [t, b) into an array twice as big and publishes it.
+    private AtomicReferenceArray<Item> grow(AtomicReferenceArray<Item> old, long t, long b) {
+        AtomicReferenceArray<Item> copy = new AtomicReferenceArray<>(2 * old.length());
+        for (long i = t; i < b; i++) {
+            copy.set((int) i & (copy.length() - 1), old.get((int) i & (old.length() - 1)));
+        }
+        tab = copy;
+        return copy;
+    }
+
+    /*
+     Weakly consistent iterator from the top to the bottom as they were when it was created.
+     It never throws ConcurrentModificationException and may or may not show items taken or pushed after that.
+    */
+    public Iterator<Item> iterator() {
+        return new ArrayIterator();
+    }
+
+    private class ArrayIterator implements Iterator<Item> {
+        private final AtomicReferenceArray<Item> a = tab;
+        private final long end = bottom;
+        private long i = Math.max(top.get(), end - a.length());
+        private Item next = advance();
+
+        //Skips slots that were already cleared by pop.
+        private Item advance() {
+            while (i < end) {
+                Item item = a.get((int) i++ & (a.length() - 1));
+                if (item != null) return item;
+            }
+            return null;
+        }
+
+        public boolean hasNext() {return next != null;}
+        public void remove() {throw new UnsupportedOperationException();}
+        public Item next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Item item = next;
+            next = advance();
+            return item;
+        }
+    }
+
+    // test client: the owner pushes and pops while thieves steal; every item must come out exactly once
+    public static void main(String[] args) throws InterruptedException {
+        int items = args.length >= 1 ? Integer.parseInt(args[0]) : 1_000_000;
+        int thieves = args.length >= 2 ? Integer.parseInt(args[1]) : 3;
+        WorkStealingDeque<Integer> deque = new WorkStealingDeque<>();
+        AtomicIntegerArray seen = new AtomicIntegerArray(items);
+        AtomicBoolean done = new AtomicBoolean();
+
+        Thread[] workers = new Thread[thieves];
+        for (int w = 0; w < thieves; w++) {
+            workers[w] = new Thread(() -> {
+                while (!done.get() || !deque.isEmpty()) {
+                    Integer item = deque.steal();
+                    if (item != null) seen.incrementAndGet(item);
+                }
+            });
+            workers[w].start();
+        }
+        for (int i = 0; i < items; i++) {
+            deque.push(i);
+            if (i % 3 == 0) {
+                Integer item = deque.pop();
+                if (item != null) seen.incrementAndGet(item);
+            }
+        }
+        Integer item;
+        while ((item = deque.pop()) != null) seen.incrementAndGet(item);
+        done.set(true);
+        for (Thread worker : workers) worker.join();
+
+        int wrong = 0;
+        for (int i = 0; i < items; i++) {
+            if (seen.get(i) != 1) wrong++;
+        }
+        System.out.println(wrong == 0 ? "every item taken exactly once" : wrong + " items lost or duplicated");
+    }
+}
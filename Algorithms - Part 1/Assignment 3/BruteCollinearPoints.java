@@ -2,13 +2,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 
 public class BruteCollinearPoints {
-    private final Point[] points;
     private final ArrayList<LineSegment> segments;
 
     public BruteCollinearPoints(Point[] pointArray) {
         if (pointArray == null) throw new IllegalArgumentException();
         for (Point p : pointArray) if (p == null) throw new IllegalArgumentException();
-        this.points = pointArray.clone();
+        Point[] points = pointArray.clone();
         this.segments = new ArrayList<>();
         int N = points.length;
 
@@ -25,8 +24,8 @@ public class BruteCollinearPoints {
                         Point point3 = points[k];
                         Point point4 = points[l];
 
-                        if (point1.slopeTo(point2) == point2.slopeTo(point3)
-                            && point2.slopeTo(point3) == point3.slopeTo(point4)) {
+                        long slope = point1.slopeKey(point2);
+                        if (slope == point1.slopeKey(point3) && slope == point1.slopeKey(point4)) {
                             segments.add(new LineSegment(point1, point4));
                         }
                     }
@@ -35,6 +34,28 @@ public class BruteCollinearPoints {
         }
     }
 
+    // same search straight over the coordinate arrays of a batch, which is already sorted and free of duplicates
+    public BruteCollinearPoints(PointBatch batch) {
+        if (batch == null) throw new IllegalArgumentException();
+        this.segments = new ArrayList<>();
+        int[] xs = batch.xs;
+        int[] ys = batch.ys;
+        int N = xs.length;
+
+        for (int i = 0; i < N - 3; i++) {
+            for (int j = i + 1; j < N - 2; j++) {
+                long slope = Point.slopeKey(xs[j] - xs[i], ys[j] - ys[i]);
+                for (int k = j + 1; k < N - 1; k++) {
+                    if (Point.slopeKey(xs[k] - xs[i], ys[k] - ys[i]) != slope) continue;
+                    for (int l = k + 1; l < N; l++) {
+                        if (Point.slopeKey(xs[l] - xs[i], ys[l] - ys[i]) == slope)
+                            segments.add(new LineSegment(batch.point(i), batch.point(l)));
+                    }
+                }
+            }
+        }
+    }
+
     public int numberOfSegments() {
         return segments.size();
     }
@@ -1,38 +1,192 @@
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/*
+ Finds every maximal line segment through 4 or more points by sorting the points by slope around each anchor in turn.
+ The hot loop allocates nothing but the segments it finds: each anchor's slope keys are computed once into a reusable long[]
+ and sorted together with the point indices in a primitive array, and runs of equal keys are scanned as index ranges.
+ Anchors can also be spread over a ForkJoinPool. Each anchor only reads the shared sorted points and writes its own scratch arrays,
+ so the anchors are split into a few ranges per thread, every range gets one set of scratch arrays and its own segment list,
+ and the lists are concatenated left to right. The result is the same, in the same order, as the sequential run.
+ A PointBatch is searched straight from its coordinate arrays, ordering each anchor's keys with its radix sort;
+ the segments are the same, but within one anchor they come out in key order rather than slope order.
+*/
 
 public class FastCollinearPoints {
-    private final Point[] points;
+    private static final int RANGES_PER_THREAD = 4;
+    private static final int INSERTION_SORT_CUTOFF = 16;
     private final ArrayList<LineSegment> segments;
 
     public FastCollinearPoints(Point[] pointArray) {
-        if (pointArray == null) throw new IllegalArgumentException();
-        for (Point p : pointArray) if (p == null) throw new IllegalArgumentException();
+        Point[] points = sortedCopy(pointArray);
+        this.segments = new ArrayList<>();
+
+        Scratch scratch = new Scratch(points.length);
+        for (int i = 0; i < points.length; i++) {
+            findSegments(points, i, scratch, segments);
+        }
+    }
+
+    // same segments in the same order, with the anchors spread across the given number of threads
+    public FastCollinearPoints(Point[] pointArray, int threads) {
+        if (threads <= 0) throw new IllegalArgumentException("threads must be greater than zero");
+        Point[] points = sortedCopy(pointArray);
+
+        int rangeSize = Math.max(1, (points.length + threads * RANGES_PER_THREAD - 1) / (threads * RANGES_PER_THREAD));
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            this.segments = pool.invoke(new AnchorTask(points, rangeSize, 0, points.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-        this.points = pointArray.clone();
+    // same segments found straight from the coordinate arrays of a batch, without Point objects or comparators
+    public FastCollinearPoints(PointBatch batch) {
+        if (batch == null) throw new IllegalArgumentException();
         this.segments = new ArrayList<>();
 
+        PointBatch.SlopeSorter sorter = new PointBatch.SlopeSorter(batch.size());
+        for (int anchor = 0; anchor < batch.size(); anchor++) {
+            int n = sorter.sortAround(batch, anchor);
+            long[] keys = sorter.keys;
+            int[] index = sorter.index;
+            for (int start = 0, end; start < n; start = end) {
+                for (end = start + 1; end < n && keys[end] == keys[start]; end++) { }
+                // the radix sort keeps each run in increasing index order, so its ends are its smallest and largest points
+                if (end - start >= 3 && index[start] > anchor)
+                    segments.add(new LineSegment(batch.point(anchor), batch.point(index[end - 1])));
+            }
+        }
+    }
+
+    private static Point[] sortedCopy(Point[] pointArray) {
+        if (pointArray == null) throw new IllegalArgumentException();
+        for (Point p : pointArray) if (p == null) throw new IllegalArgumentException();
+
+        Point[] points = pointArray.clone();
         Arrays.sort(points);
         for (int i = 0; i < points.length - 1; i++)
             if (points[i].compareTo(points[i + 1]) == 0) throw new IllegalArgumentException();
+        return points;
+    }
+
+    //Slope keys and the indices of the points they lead to, reused for every anchor one thread handles.
+    private static class Scratch {
+        private final long[] keys;
+        private final int[] index;
+
+        Scratch(int n) {
+            keys = new long[n];
+            index = new int[n];
+        }
+    }
+
+    /*
+     Adds every segment whose smallest endpoint is points[anchor], in increasing order of slope.
+     Each run of equal keys is a line through the anchor; since the points are sorted, the run's smallest index must be
+     above the anchor's for the anchor to be the smallest endpoint, and its largest index is the other endpoint.
+    */
+    private static void findSegments(Point[] points, int anchor, Scratch scratch, ArrayList<LineSegment> segments) {
+        Point p = points[anchor];
+        long[] keys = scratch.keys;
+        int[] index = scratch.index;
+        int n = 0;
+        for (int j = 0; j < points.length; j++) {
+            if (j == anchor) continue;
+            keys[n] = p.slopeKey(points[j]);
+            index[n] = j;
+            n++;
+        }
+        sort(keys, index, 0, n - 1);
+
+        for (int start = 0, end; start < n; start = end) {
+            int min = index[start];
+            int max = index[start];
+            for (end = start + 1; end < n && keys[end] == keys[start]; end++) {
+                min = Math.min(min, index[end]);
+                max = Math.max(max, index[end]);
+            }
+            if (end - start >= 3 && min > anchor)
+                segments.add(new LineSegment(p, points[max]));
+        }
+    }
+
+    /*
+     Sorts keys[lo .. hi] by slope, moving index along with them. Quicksort with 3-way partitioning, since a line
+     through many points gives long runs of equal keys; it recurses into the smaller part so the stack stays O(log n).
+    */
+    private static void sort(long[] keys, int[] index, int lo, int hi) {
+        while (hi - lo >= INSERTION_SORT_CUTOFF) {
+            int mid = (lo + hi) >>> 1;
+            if (Point.compareSlopeKeys(keys[mid], keys[lo]) < 0) swap(keys, index, mid, lo);
+            if (Point.compareSlopeKeys(keys[hi], keys[lo]) < 0) swap(keys, index, hi, lo);
+            if (Point.compareSlopeKeys(keys[hi], keys[mid]) < 0) swap(keys, index, hi, mid);
+            long pivot = keys[mid];
+            int lt = lo, i = lo, gt = hi;
+            while (i <= gt) {
+                int cmp = Point.compareSlopeKeys(keys[i], pivot);
+                if (cmp < 0) swap(keys, index, lt++, i++);
+                else if (cmp > 0) swap(keys, index, i, gt--);
+                else i++;
+            }
+            if (lt - lo < hi - gt) {
+                sort(keys, index, lo, lt - 1);
+                lo = gt + 1;
+            } else {
+                sort(keys, index, gt + 1, hi);
+                hi = lt - 1;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && Point.compareSlopeKeys(keys[j], keys[j - 1]) < 0; j--) {
+                swap(keys, index, j, j - 1);
+            }
+        }
+    }
+
+    private static void swap(long[] keys, int[] index, int i, int j) {
+        long key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        int t = index[i];
+        index[i] = index[j];
+        index[j] = t;
+    }
+
+    //Finds the segments anchored at points[lo .. hi - 1]; the left half's list comes first in the merge, as in the sequential loop.
+    private static class AnchorTask extends RecursiveTask<ArrayList<LineSegment>> {
+        private static final long serialVersionUID = 1L;
+        private final Point[] points;
+        private final int rangeSize;
+        private final int lo;
+        private final int hi;
+
+        AnchorTask(Point[] points, int rangeSize, int lo, int hi) {
+            this.points = points;
+            this.rangeSize = rangeSize;
+            this.lo = lo;
+            this.hi = hi;
+        }
 
-        for (Point p : points) {
-            Point[] points = this.points.clone();
-            Arrays.sort(points, p.slopeOrder());
-
-            double previousSlope = Double.NaN;
-            LinkedList<Point> segment = new LinkedList<>();
-            for (int i = 1; i <= points.length; i++) {
-                int index = i % points.length;
-                if (p.slopeTo(points[index]) != previousSlope) {
-                    if (segment.size() > 2 && p.compareTo(segment.peekFirst()) < 0)
-                        segments.add(new LineSegment(p, segment.peekLast()));
-                    segment.clear();
+        protected ArrayList<LineSegment> compute() {
+            if (hi - lo <= rangeSize) {
+                ArrayList<LineSegment> segments = new ArrayList<>();
+                Scratch scratch = new Scratch(points.length);
+                for (int i = lo; i < hi; i++) {
+                    findSegments(points, i, scratch, segments);
                 }
-                segment.add(points[index]);
-                previousSlope = p.slopeTo(points[index]);
+                return segments;
             }
+            int mid = (lo + hi) >>> 1;
+            AnchorTask left = new AnchorTask(points, rangeSize, lo, mid);
+            left.fork();
+            ArrayList<LineSegment> right = new AnchorTask(points, rangeSize, mid, hi).compute();
+            ArrayList<LineSegment> segments = left.join();
+            segments.addAll(right);
+            return segments;
         }
     }
 
@@ -0,0 +1,106 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/*
+ Finds every maximal line segment through 4 or more points, like FastCollinearPoints, but without sorting per anchor.
+ The points are sorted once; then for each anchor p the other points are bucketed by their exact slope key with p
+ in a primitive open-addressing hash map, so the whole run takes expected O(n^2) time and O(n) extra memory.
+ A bucket is a segment when it holds 3 or more points and none of them is smaller than p, so each segment is found once,
+ from its smallest endpoint; its other endpoint is the largest point in the bucket.
+ Segments come out ordered by their smallest endpoint, then by the order their second point appears in the sorted input.
+*/
+
+public class HashCollinearPoints {
+    private final Point[] points;
+    private final ArrayList<LineSegment> segments;
+
+    public HashCollinearPoints(Point[] pointArray) {
+        if (pointArray == null) throw new IllegalArgumentException();
+        for (Point p : pointArray) if (p == null) throw new IllegalArgumentException();
+
+        this.points = pointArray.clone();
+        this.segments = new ArrayList<>();
+
+        Arrays.sort(points);
+        for (int i = 0; i < points.length - 1; i++)
+            if (points[i].compareTo(points[i + 1]) == 0) throw new IllegalArgumentException();
+
+        SlopeBuckets buckets = new SlopeBuckets(points.length);
+        for (int i = 0; i < points.length; i++) {
+            Point p = points[i];
+            buckets.clear();
+            for (int j = 0; j < points.length; j++) {
+                if (j != i) buckets.add(p.slopeKey(points[j]), j, j < i);
+            }
+            for (int b = 0; b < buckets.used; b++) {
+                int slot = buckets.order[b];
+                if (buckets.counts[slot] >= 3 && !buckets.smaller[slot])
+                    segments.add(new LineSegment(p, points[buckets.largest[slot]]));
+            }
+        }
+    }
+
+    public int numberOfSegments() {
+        return segments.size();
+    }
+
+    public LineSegment[] segments() {
+        return segments.toArray(new LineSegment[numberOfSegments()]);
+    }
+
+    /*
+     Open-addressing map from slope key to a bucket summary, sized once for n - 1 keys at most half full.
+     A slot belongs to the current anchor only when its stamp matches, so clear() is O(1) instead of wiping the arrays.
+     order lists the slots in first-use order, which keeps the output independent of the hash layout.
+    */
+    private static class SlopeBuckets {
+        private final long[] keys;
+        private final int[] stamps;
+        private final int[] counts;
+        private final int[] largest;     // index of the largest point in the bucket
+        private final boolean[] smaller; // whether the bucket holds a point smaller than the anchor
+        private final int[] order;
+        private int used;
+        private int stamp;
+
+        SlopeBuckets(int n) {
+            int capacity = Integer.highestOneBit(Math.max(2 * n, 2) - 1) << 1;
+            keys = new long[capacity];
+            stamps = new int[capacity];
+            counts = new int[capacity];
+            largest = new int[capacity];
+            smaller = new boolean[capacity];
+            order = new int[n];
+        }
+
+        void clear() {
+            stamp++;
+            used = 0;
+        }
+
+        //Adds the point at the given index, which lies in direction key from the anchor; indices arrive in increasing order.
+        void add(long key, int index, boolean isSmaller) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (stamps[slot] == stamp && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (stamps[slot] != stamp) {
+                stamps[slot] = stamp;
+                keys[slot] = key;
+                counts[slot] = 0;
+                smaller[slot] = false;
+                order[used++] = slot;
+            }
+            counts[slot]++;
+            largest[slot] = index;
+            if (isSmaller) smaller[slot] = true;
+        }
+
+        //Fibonacci hashing of both halves, folded so the high bits reach the masked low bits.
+        private static int hash(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
@@ -4,6 +4,15 @@ import edu.princeton.cs.algs4.StdOut;
 
 public class Point implements Comparable<Point> {
 
+    /*
+     Slope key of a point with itself, below every other key.
+     Any other key packs a direction reduced by the gcd of its components and normalized so that dx > 0,
+     or dx == 0 and dy == 1 for a vertical line: dy goes in the high 32 bits and dx in the low 32 bits.
+     Two points make the same slope with this point exactly when their keys are equal.
+     Keys are exact as long as coordinate differences fit in an int, which the assignment's 0 to 32767 range easily does.
+     */
+    public static final long DEGENERATE = Long.MIN_VALUE;
+
     private final int x;     // x-coordinate of this point
     private final int y;     // y-coordinate of this point
 
@@ -39,7 +48,56 @@ public class Point implements Comparable<Point> {
         else if (y == that.y) {
             return 0;
         }
-        return (that.y - y) / (that.x - x);
+        return (double) (that.y - y) / (that.x - x);
+    }
+
+    //Returns the exact slope key between this point and the specified point, DEGENERATE if they are equal.
+    public long slopeKey(Point that) {
+        return slopeKey(that.x - x, that.y - y);
+    }
+
+    //Slope key of the direction (dx, dy); see DEGENERATE for the layout.
+    public static long slopeKey(int dx, int dy) {
+        if (dx == 0) {
+            if (dy == 0) return DEGENERATE;
+            return pack(0, 1);
+        }
+        if (dy == 0) return pack(1, 0);
+        if (dx < 0) {
+            dx = -dx;
+            dy = -dy;
+        }
+        int g = gcd(dx, Math.abs(dy));
+        return pack(dx / g, dy / g);
+    }
+
+    private static long pack(int dx, int dy) {
+        return ((long) dy << 32) | (dx & 0xFFFFFFFFL);
+    }
+
+    private static int gcd(int a, int b) {
+        while (b != 0) {
+            int t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /*
+     Compares two slope keys by the slope they stand for, in the same order as slopeTo():
+     DEGENERATE first, then increasing slope, vertical last. Equal keys compare without any arithmetic.
+     */
+    public static int compareSlopeKeys(long a, long b) {
+        if (a == b) return 0;
+        if (a == DEGENERATE) return -1;
+        if (b == DEGENERATE) return 1;
+        return compareDirections((int) a, (int) (a >> 32), (int) b, (int) (b >> 32));
+    }
+
+    //Compares the slopes of two directions with dx >= 0 (dy > 0 when dx == 0) by cross-multiplying, so nothing is rounded.
+    private static int compareDirections(long dxA, long dyA, long dxB, long dyB) {
+        return Long.compare(dyA * dxB, dyB * dxA);
     }
 
     /*
@@ -60,13 +118,25 @@ public class Point implements Comparable<Point> {
         return new SlopeOrder();
     }
     
+    /*
+     Exact order with no division, gcd or infinities: each direction is sign-normalized
+     and two slopes are compared by cross-multiplying; only this point itself needs a special case.
+     */
     private class SlopeOrder implements Comparator<Point> {
         public int compare(Point a, Point b) {
-            double aSlope = slopeTo(a);
-            double bSlope = slopeTo(b);
-            if (aSlope < bSlope) return -1;
-            if (bSlope < aSlope) return 1;
-            return 0;
+            int dxA = a.x - x, dyA = a.y - y;
+            int dxB = b.x - x, dyB = b.y - y;
+            if (dxA == 0 && dyA == 0) return dxB == 0 && dyB == 0 ? 0 : -1;
+            if (dxB == 0 && dyB == 0) return 1;
+            if (dxA < 0 || (dxA == 0 && dyA < 0)) {
+                dxA = -dxA;
+                dyA = -dyA;
+            }
+            if (dxB < 0 || (dxB == 0 && dyB < 0)) {
+                dxB = -dxB;
+                dyB = -dyB;
+            }
+            return compareDirections(dxA, dyA, dxB, dyB);
         }
     }
 
@@ -90,5 +160,6 @@ public class Point implements Comparable<Point> {
         StdOut.println(p.slopeOrder().compare(q, r));
         StdOut.println(p.slopeTo(q));
         StdOut.println(p.slopeTo(r));
+        StdOut.println(p.slopeKey(q) == p.slopeKey(new Point(69 + 2 * 708, 420 + 2 * 579)));
     }
 }
@@ -0,0 +1,138 @@
+import java.util.Arrays;
+import edu.princeton.cs.algs4.StdIn;
+import edu.princeton.cs.algs4.StdOut;
+
+/*
+ A set of distinct points stored as two parallel int arrays instead of Point objects, for the collinear engines to scan directly.
+ The points are kept in the same natural order as Point.compareTo (by y, then x), so an index comparison is a point comparison,
+ and Point objects are only made for the endpoints of the segments found.
+ Ordering by slope around an anchor is a radix sort of the packed slope keys rather than a comparator sort.
+*/
+
+public class PointBatch {
+    final int[] xs;
+    final int[] ys;
+
+    // batch of the points (xs[i], ys[i]); throws IllegalArgumentException if an array is null, the lengths differ or a point repeats
+    public PointBatch(int[] xs, int[] ys) {
+        if (xs == null || ys == null || xs.length != ys.length) throw new IllegalArgumentException();
+        int n = xs.length;
+
+        //y in the high half and x with its sign bit flipped in the low half, so long order is y-then-x order.
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) ys[i] << 32) | ((xs[i] ^ Integer.MIN_VALUE) & 0xFFFFFFFFL);
+        }
+        Arrays.sort(packed);
+        this.xs = new int[n];
+        this.ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            if (i > 0 && packed[i] == packed[i - 1]) throw new IllegalArgumentException();
+            this.xs[i] = (int) packed[i] ^ Integer.MIN_VALUE;
+            this.ys[i] = (int) (packed[i] >> 32);
+        }
+    }
+
+    public int size() {
+        return xs.length;
+    }
+
+    public int x(int i) {
+        return xs[i];
+    }
+
+    public int y(int i) {
+        return ys[i];
+    }
+
+    //New Point for the i-th point in natural order.
+    public Point point(int i) {
+        return new Point(xs[i], ys[i]);
+    }
+
+    /*
+     Scratch space for sorting the other points of a batch by slope key around one anchor, reused across anchors by one thread.
+     The sort is LSD radix with 8-bit digits. The key is Point.slopeKey with dy zigzag-encoded, which keeps equal slopes equal
+     and leaves the high bytes zero when coordinates are small, and a digit that is the same for every key is skipped;
+     for coordinates in the assignment's 0 to 32767 range that is at most 4 passes.
+     Runs of equal keys come out together in increasing index order, but the runs are not in slope order.
+    */
+    static class SlopeSorter {
+        private static final int RADIX = 256;
+        private static final int DIGITS = 8;
+        long[] keys;
+        int[] index;
+        private long[] keyBuffer;
+        private int[] indexBuffer;
+        private final int[] counts = new int[DIGITS * RADIX];
+
+        SlopeSorter(int n) {
+            keys = new long[n];
+            index = new int[n];
+            keyBuffer = new long[n];
+            indexBuffer = new int[n];
+        }
+
+        //Fills keys and index with the other points of the batch sorted by slope key around the anchor; returns how many there are.
+        int sortAround(PointBatch batch, int anchor) {
+            int[] xs = batch.xs;
+            int[] ys = batch.ys;
+            int x = xs[anchor];
+            int y = ys[anchor];
+            int n = 0;
+            for (int j = 0; j < xs.length; j++) {
+                if (j == anchor) continue;
+                long key = Point.slopeKey(xs[j] - x, ys[j] - y);
+                int dy = (int) (key >> 32);
+                keys[n] = ((long) ((dy << 1) ^ (dy >> 31)) << 32) | (key & 0xFFFFFFFFL);
+                index[n] = j;
+                n++;
+            }
+
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                long key = keys[i];
+                for (int d = 0; d < DIGITS; d++) {
+                    counts[d * RADIX + ((int) (key >>> (8 * d)) & 0xFF)]++;
+                }
+            }
+            for (int d = 0; d < DIGITS && n > 0; d++) {
+                int offset = d * RADIX;
+                int first = (int) (keys[0] >>> (8 * d)) & 0xFF;
+                if (counts[offset + first] == n) continue; // every key has the same digit here
+                for (int r = 0, total = 0; r < RADIX; r++) {
+                    int count = counts[offset + r];
+                    counts[offset + r] = total;
+                    total += count;
+                }
+                for (int i = 0; i < n; i++) {
+                    int slot = counts[offset + ((int) (keys[i] >>> (8 * d)) & 0xFF)]++;
+                    keyBuffer[slot] = keys[i];
+                    indexBuffer[slot] = index[i];
+                }
+                long[] k = keys;
+                keys = keyBuffer;
+                keyBuffer = k;
+                int[] t = index;
+                index = indexBuffer;
+                indexBuffer = t;
+            }
+            return n;
+        }
+    }
+
+    // test client: reads n and then n x-y pairs from standard input and prints the segments FastCollinearPoints finds
+    public static void main(String[] args) {
+        int n = StdIn.readInt();
+        int[] xs = new int[n];
+        int[] ys = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = StdIn.readInt();
+            ys[i] = StdIn.readInt();
+        }
+        FastCollinearPoints collinear = new FastCollinearPoints(new PointBatch(xs, ys));
+        for (LineSegment segment : collinear.segments()) {
+            StdOut.println(segment);
+        }
+    }
+}